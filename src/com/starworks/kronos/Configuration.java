@@ -1,10 +1,22 @@
 package com.starworks.kronos;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.management.InstanceAlreadyExistsException;
 
@@ -13,7 +25,9 @@ import com.starworks.kronos.files.FileSystem;
 import com.starworks.kronos.logging.Layout;
 import com.starworks.kronos.logging.Level;
 import com.starworks.kronos.toolkit.concurrent.ArrivalGate;
-import com.ximpleware.AutoPilot;
+import com.starworks.kronos.toolkit.crypto.Hash;
+import com.ximpleware.NavException;
+import com.ximpleware.ParseException;
 import com.ximpleware.VTDGen;
 import com.ximpleware.VTDNav;
 
@@ -25,8 +39,17 @@ public final class Configuration {
 	public static JobsData jobs;
 	public static MathData math;
 
+	private static final String CACHE_EXTENSION = ".cache";
+	private static final int CACHE_MAGIC = 0x4B434647;
+
 	private static final ArrivalGate s_gate = new ArrivalGate(1);
 
+	/**
+	 * Loads the configuration at {@code path}, generating a default one if it
+	 * does not exist. The typed values are cached in a binary file next to it,
+	 * keyed by the hash of the XML, so the XML is only parsed again when it
+	 * changes, and then in a single pass over its elements.
+	 */
 	public static void load(String path) throws InstanceAlreadyExistsException {
 		try {
 			s_gate.arrive();
@@ -37,213 +60,212 @@ public final class Configuration {
 		tryConfiguration(path);
 
 		try {
-			VTDGen vg = new VTDGen();
-			if (vg.parseFile(path, true)) {
-				VTDNav vn = vg.getNav();
-				AutoPilot ap = new AutoPilot(vn);
-
-				// runtime
-				int updatesPerSecond = 60;
-				double updateRate = 1.0 / (double) updatesPerSecond;
-				int fixedUpdatesPerSecond = 60;
-				double fixedUpdateRate = 1.0 / (double) fixedUpdatesPerSecond;
-				boolean debug = false;
-				String workingDirectory = "";
-				String applicationImplementation = null;
-				ap.selectXPath("//application/runtime/updatesPerSecond");
-				if (ap.evalXPath() != -1) {
-					updatesPerSecond = Integer.parseInt(vn.toString(vn.getText()));
-					updateRate = 1.0 / (double) updatesPerSecond;
-				}
-				ap.selectXPath("//application/runtime/fixedUpdatesPerSecond");
-				if (ap.evalXPath() != -1) {
-					fixedUpdatesPerSecond = Integer.parseInt(vn.toString(vn.getText()));
-					fixedUpdateRate = 1.0 / (double) fixedUpdatesPerSecond;
-				}
-				ap.selectXPath("//application/runtime/debug");
-				if (ap.evalXPath() != -1) {
-					debug = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/runtime/workingDirectory");
-				if (ap.evalXPath() != -1) {
-					workingDirectory = vn.toString(vn.getText());
-					FileSystem.INSTANCE.setWorkingDirectory(workingDirectory);
-				}
-				ap.selectXPath("//application/@implementation");
-				if (ap.evalXPath() != -1) {
-					applicationImplementation = vn.toString(vn.getAttrVal("implementation"));
-				}
-				runtime = new RuntimeData(applicationImplementation, updatesPerSecond, updateRate, fixedUpdatesPerSecond, fixedUpdateRate, debug, workingDirectory);
-
-				// window
-				String windowTitle = null;
-				int windowWidth = 0;
-				int windowHeight = 0;
-				boolean windowFullscreen = false;
-				boolean windowVsync = false;
-				ap.selectXPath("//application/window/title");
-				if (ap.evalXPath() != -1) {
-					windowTitle = vn.toString(vn.getText());
-				}
-				ap.selectXPath("//application/window/width");
-				if (ap.evalXPath() != -1) {
-					windowWidth = Integer.parseInt(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/window/height");
-				if (ap.evalXPath() != -1) {
-					windowHeight = Integer.parseInt(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/window/fullscreen");
-				if (ap.evalXPath() != -1) {
-					windowFullscreen = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/window/vsync");
-				if (ap.evalXPath() != -1) {
-					windowVsync = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				window = new WindowData(windowTitle, windowWidth, windowHeight, windowFullscreen, windowVsync);
-
-				// logging
-				String loggingImpl = null;
-				String loggingName = null;
-				Level loggingLevel = null;
-				Layout loggingLayout = null;
-				String loggingDirectory = null;
-				String loggingExtension = null;
-				String loggingBackupExtension = null;
-				int loggingMaxRotatingFileLineCount = 0;
-				boolean loggingLogToConsole = false;
-				boolean loggingLogToFile = false;
-				boolean loggingAnsiFormatting = false;
-
-				ap.selectXPath("//application/logging/name");
-				if (ap.evalXPath() != -1) {
-					loggingName = vn.toString(vn.getText());
-				}
-				ap.selectXPath("//application/logging/level");
-				if (ap.evalXPath() != -1) {
-					loggingLevel = Level.of(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/logging/layout");
-				if (ap.evalXPath() != -1) {
-					loggingLayout = Layout.of(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/logging/directory");
-				if (ap.evalXPath() != -1) {
-					loggingDirectory = vn.toString(vn.getText());
-				}
-				ap.selectXPath("//application/logging/extension");
-				if (ap.evalXPath() != -1) {
-					loggingExtension = vn.toString(vn.getText());
-				}
-				ap.selectXPath("//application/logging/backupExtension");
-				if (ap.evalXPath() != -1) {
-					loggingBackupExtension = vn.toString(vn.getText());
-				}
-				ap.selectXPath("//application/logging/maxRotatingFileLineCount");
-				if (ap.evalXPath() != -1) {
-					loggingMaxRotatingFileLineCount = Integer.parseInt(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/logging/logToConsole");
-				if (ap.evalXPath() != -1) {
-					loggingLogToConsole = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/logging/logToFile");
-				if (ap.evalXPath() != -1) {
-					loggingLogToFile = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/logging/ansiFormatting");
-				if (ap.evalXPath() != -1) {
-					loggingAnsiFormatting = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/logging/@implementation");
-				if (ap.evalXPath() != -1) {
-					loggingImpl = vn.toString(vn.getAttrVal("implementation"));
-				}
-				logging = new LoggingData(loggingImpl, loggingName, loggingLevel, loggingLayout, loggingDirectory, loggingExtension, loggingBackupExtension, loggingMaxRotatingFileLineCount, loggingLogToConsole, loggingLogToFile, loggingAnsiFormatting);
-
-				// jobs
-				int jobsTimeoutSeconds = 0;
-				int jobsShutdownTimeoutSeconds = 0;
-				int jobsUpdatesPerSecond = 0;
-				ap.selectXPath("//application/jobs/timeoutSeconds");
-				if (ap.evalXPath() != -1) {
-					jobsTimeoutSeconds = Integer.parseInt(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/jobs/shutdownTimeoutSeconds");
-				if (ap.evalXPath() != -1) {
-					jobsShutdownTimeoutSeconds = Integer.parseInt(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/jobs/updatesPerSecond");
-				if (ap.evalXPath() != -1) {
-					jobsUpdatesPerSecond = Integer.parseInt(vn.toString(vn.getText()));
-				}
-				jobs = new JobsData(jobsTimeoutSeconds, jobsShutdownTimeoutSeconds, jobsUpdatesPerSecond);
-
-				// math
-				boolean mathDebug = false;
-				boolean mathNoUnsafe = false;
-				boolean mathForceUnsafe = false;
-				boolean mathFastmath = false;
-				boolean mathSinLookup = false;
-				int mathSinLookupBits = 0;
-				boolean mathUseNumberFormat = false;
-				boolean mathUseMathFMA = false;
-				int mathNumberFormatBigDecimals = 0;
-				ap.selectXPath("//application/math/debug");
-				if (ap.evalXPath() != -1) {
-					mathDebug = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/math/noUnsafe");
-				if (ap.evalXPath() != -1) {
-					mathNoUnsafe = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/math/forceUnsafe");
-				if (ap.evalXPath() != -1) {
-					mathForceUnsafe = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/math/fastmath");
-				if (ap.evalXPath() != -1) {
-					mathFastmath = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/math/sinLookup");
-				if (ap.evalXPath() != -1) {
-					mathSinLookup = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/math/sinLookupBits");
-				if (ap.evalXPath() != -1) {
-					mathSinLookupBits = Integer.parseInt(vn.toString(vn.getText()));
+			byte[] xml = Files.readAllBytes(Paths.get(path));
+			long hash = Hash.MURMUR3.hash128(xml)[0];
+			Path cache = Paths.get(path.substring(0, path.lastIndexOf(".")) + CACHE_EXTENSION);
+			Object[] values = readCache(cache, hash);
+			if (values == null) {
+				values = parse(xml);
+				if (values != null) {
+					writeCache(cache, hash, values);
 				}
-				ap.selectXPath("//application/math/useNumberFormat");
-				if (ap.evalXPath() != -1) {
-					mathUseNumberFormat = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/math/useMathFMA");
-				if (ap.evalXPath() != -1) {
-					mathUseMathFMA = Boolean.parseBoolean(vn.toString(vn.getText()));
-				}
-				ap.selectXPath("//application/math/numberFormatBigDecimals");
-				if (ap.evalXPath() != -1) {
-					mathNumberFormatBigDecimals = Integer.parseInt(vn.toString(vn.getText()));
+			}
+			if (values != null) {
+				apply(values);
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	private static void apply(Object[] values) {
+		// runtime
+		int updatesPerSecond = getInt(values, Field.RUNTIME_UPDATES_PER_SECOND, 60);
+		double updateRate = 1.0 / (double) updatesPerSecond;
+		int fixedUpdatesPerSecond = getInt(values, Field.RUNTIME_FIXED_UPDATES_PER_SECOND, 60);
+		double fixedUpdateRate = 1.0 / (double) fixedUpdatesPerSecond;
+		boolean debug = getBoolean(values, Field.RUNTIME_DEBUG, false);
+		String workingDirectory = getString(values, Field.RUNTIME_WORKING_DIRECTORY, "");
+		if (values[Field.RUNTIME_WORKING_DIRECTORY.ordinal()] != null) {
+			FileSystem.INSTANCE.setWorkingDirectory(workingDirectory);
+		}
+		long resourceCacheSize = getLong(values, Field.RUNTIME_RESOURCE_CACHE_SIZE, 67108864);
+		boolean resourceCacheOffHeap = getBoolean(values, Field.RUNTIME_RESOURCE_CACHE_OFF_HEAP, false);
+		String applicationImplementation = getString(values, Field.APPLICATION_IMPLEMENTATION, null);
+		runtime = new RuntimeData(applicationImplementation, updatesPerSecond, updateRate, fixedUpdatesPerSecond, fixedUpdateRate, debug, workingDirectory, resourceCacheSize, resourceCacheOffHeap);
+
+		// window
+		String windowTitle = getString(values, Field.WINDOW_TITLE, null);
+		int windowWidth = getInt(values, Field.WINDOW_WIDTH, 0);
+		int windowHeight = getInt(values, Field.WINDOW_HEIGHT, 0);
+		boolean windowFullscreen = getBoolean(values, Field.WINDOW_FULLSCREEN, false);
+		boolean windowVsync = getBoolean(values, Field.WINDOW_VSYNC, false);
+		window = new WindowData(windowTitle, windowWidth, windowHeight, windowFullscreen, windowVsync);
+
+		// logging
+		String loggingImpl = getString(values, Field.LOGGING_IMPLEMENTATION, null);
+		String loggingName = getString(values, Field.LOGGING_NAME, null);
+		String loggingLevelName = getString(values, Field.LOGGING_LEVEL, null);
+		Level loggingLevel = loggingLevelName == null ? null : Level.of(loggingLevelName);
+		String loggingLayoutName = getString(values, Field.LOGGING_LAYOUT, null);
+		Layout loggingLayout = loggingLayoutName == null ? null : Layout.of(loggingLayoutName);
+		String loggingDirectory = getString(values, Field.LOGGING_DIRECTORY, null);
+		String loggingExtension = getString(values, Field.LOGGING_EXTENSION, null);
+		String loggingBackupExtension = getString(values, Field.LOGGING_BACKUP_EXTENSION, null);
+		long loggingMaxRotatingFileSize = getLong(values, Field.LOGGING_MAX_ROTATING_FILE_SIZE, 0);
+		int loggingMaxRotatedFileCount = getInt(values, Field.LOGGING_MAX_ROTATED_FILE_COUNT, 0);
+		boolean loggingCompressRotatedFiles = getBoolean(values, Field.LOGGING_COMPRESS_ROTATED_FILES, false);
+		double loggingRateLimitPerSecond = getDouble(values, Field.LOGGING_RATE_LIMIT_PER_SECOND, 0);
+		int loggingRateLimitBurst = getInt(values, Field.LOGGING_RATE_LIMIT_BURST, 0);
+		boolean loggingLogToConsole = getBoolean(values, Field.LOGGING_LOG_TO_CONSOLE, false);
+		boolean loggingLogToFile = getBoolean(values, Field.LOGGING_LOG_TO_FILE, false);
+		boolean loggingAnsiFormatting = getBoolean(values, Field.LOGGING_ANSI_FORMATTING, false);
+		logging = new LoggingData(loggingImpl, loggingName, loggingLevel, loggingLayout, loggingDirectory, loggingExtension, loggingBackupExtension, loggingMaxRotatingFileSize, loggingMaxRotatedFileCount, loggingCompressRotatedFiles, loggingRateLimitPerSecond, loggingRateLimitBurst, loggingLogToConsole, loggingLogToFile, loggingAnsiFormatting);
+
+		// jobs
+		int jobsTimeoutSeconds = getInt(values, Field.JOBS_TIMEOUT_SECONDS, 0);
+		int jobsShutdownTimeoutSeconds = getInt(values, Field.JOBS_SHUTDOWN_TIMEOUT_SECONDS, 0);
+		int jobsUpdatesPerSecond = getInt(values, Field.JOBS_UPDATES_PER_SECOND, 0);
+		jobs = new JobsData(jobsTimeoutSeconds, jobsShutdownTimeoutSeconds, jobsUpdatesPerSecond);
+
+		// math
+		boolean mathDebug = getBoolean(values, Field.MATH_DEBUG, false);
+		boolean mathNoUnsafe = getBoolean(values, Field.MATH_NO_UNSAFE, false);
+		boolean mathForceUnsafe = getBoolean(values, Field.MATH_FORCE_UNSAFE, false);
+		boolean mathFastmath = getBoolean(values, Field.MATH_FASTMATH, false);
+		boolean mathSinLookup = getBoolean(values, Field.MATH_SIN_LOOKUP, false);
+		int mathSinLookupBits = getInt(values, Field.MATH_SIN_LOOKUP_BITS, 0);
+		boolean mathUseNumberFormat = getBoolean(values, Field.MATH_USE_NUMBER_FORMAT, false);
+		boolean mathUseMathFMA = getBoolean(values, Field.MATH_USE_MATH_FMA, false);
+		int mathNumberFormatBigDecimals = getInt(values, Field.MATH_NUMBER_FORMAT_BIG_DECIMALS, 0);
+		NumberFormat numberFormat;
+		{
+			if (mathUseNumberFormat) {
+				char[] prec = new char[mathNumberFormatBigDecimals];
+				Arrays.fill(prec, '0');
+				numberFormat = new DecimalFormat(" 0." + new String(prec) + "E0;-");
+			} else {
+				numberFormat = NumberFormat.getNumberInstance(Locale.ENGLISH);
+				numberFormat.setGroupingUsed(false);
+			}
+		}
+		math = new MathData(mathDebug, mathNoUnsafe, mathForceUnsafe, mathFastmath, mathSinLookup, mathSinLookupBits, mathUseNumberFormat, mathUseMathFMA, mathNumberFormatBigDecimals, numberFormat);
+	}
+
+	/**
+	 * Reads every field of the schema in a single walk over the document's
+	 * sections and their elements.
+	 *
+	 * @return the values indexed by {@link Field#ordinal()}, absent fields being
+	 *         {@code null}, or {@code null} if the document does not parse
+	 */
+	private static Object[] parse(byte[] xml) throws Exception {
+		VTDGen vg = new VTDGen();
+		vg.setDoc(xml);
+		try {
+			vg.parse(true);
+		} catch (ParseException e) {
+			e.printStackTrace();
+			return null;
+		}
+		VTDNav vn = vg.getNav();
+		Object[] values = new Object[Field.COUNT];
+		if (!vn.matchElement("application")) {
+			return values;
+		}
+		put(values, "@implementation", vn, vn.getAttrVal("implementation"));
+		if (vn.toElement(VTDNav.FIRST_CHILD)) {
+			do {
+				String section = vn.toString(vn.getCurrentIndex());
+				put(values, section + "/@implementation", vn, vn.getAttrVal("implementation"));
+				if (vn.toElement(VTDNav.FIRST_CHILD)) {
+					do {
+						put(values, section + "/" + vn.toString(vn.getCurrentIndex()), vn, vn.getText());
+					} while (vn.toElement(VTDNav.NEXT_SIBLING));
+					vn.toElement(VTDNav.PARENT);
+				}
+			} while (vn.toElement(VTDNav.NEXT_SIBLING));
+		}
+		return values;
+	}
+
+	private static void put(Object[] values, String path, VTDNav vn, int index) throws NavException {
+		Field field = Field.of(path);
+		if (field != null && index != -1) {
+			values[field.ordinal()] = field.m_type.parse(vn.toString(index));
+		}
+	}
+
+	/**
+	 * @return the cached values, or {@code null} if there is no cache or it was
+	 *         built from another document or schema
+	 */
+	private static Object[] readCache(Path cache, long hash) {
+		if (!Files.isRegularFile(cache)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache)))) {
+			if (in.readInt() != CACHE_MAGIC || in.readLong() != Field.SCHEMA_HASH || in.readLong() != hash) {
+				return null;
+			}
+			Object[] values = new Object[Field.COUNT];
+			for (Field field : Field.VALUES) {
+				if (in.readBoolean()) {
+					values[field.ordinal()] = field.m_type.read(in);
 				}
-				NumberFormat numberFormat;
-				{
-					if (mathUseNumberFormat) {
-						char[] prec = new char[mathNumberFormatBigDecimals];
-						Arrays.fill(prec, '0');
-						numberFormat = new DecimalFormat(" 0." + new String(prec) + "E0;-");
-					} else {
-						numberFormat = NumberFormat.getNumberInstance(Locale.ENGLISH);
-						numberFormat.setGroupingUsed(false);
+			}
+			return values;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static void writeCache(Path cache, long hash, Object[] values) {
+		Path temporary = cache.resolveSibling(cache.getFileName() + ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+				out.writeInt(CACHE_MAGIC);
+				out.writeLong(Field.SCHEMA_HASH);
+				out.writeLong(hash);
+				for (Field field : Field.VALUES) {
+					Object value = values[field.ordinal()];
+					out.writeBoolean(value != null);
+					if (value != null) {
+						field.m_type.write(out, value);
 					}
 				}
-				math = new MathData(mathDebug, mathNoUnsafe, mathForceUnsafe, mathFastmath, mathSinLookup, mathSinLookupBits, mathUseNumberFormat, mathUseMathFMA, mathNumberFormatBigDecimals, numberFormat);
 			}
-		} catch (Exception e) {
+			Files.move(temporary, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
+	private static String getString(Object[] values, Field field, String defaultValue) {
+		Object value = values[field.ordinal()];
+		return value != null ? (String) value : defaultValue;
+	}
+
+	private static int getInt(Object[] values, Field field, int defaultValue) {
+		Object value = values[field.ordinal()];
+		return value != null ? (Integer) value : defaultValue;
+	}
+
+	private static long getLong(Object[] values, Field field, long defaultValue) {
+		Object value = values[field.ordinal()];
+		return value != null ? (Long) value : defaultValue;
+	}
+
+	private static double getDouble(Object[] values, Field field, double defaultValue) {
+		Object value = values[field.ordinal()];
+		return value != null ? (Double) value : defaultValue;
+	}
+
+	private static boolean getBoolean(Object[] values, Field field, boolean defaultValue) {
+		Object value = values[field.ordinal()];
+		return value != null ? (Boolean) value : defaultValue;
+	}
+
 	private static void tryConfiguration(String path) {
 		String xsdPath = path.substring(0, path.lastIndexOf(".")) + ".xsd";
 		try {
@@ -269,6 +291,8 @@ public final class Configuration {
 						"\t\t\t<xs:element name=\"fixedUpdatesPerSecond\" type=\"xs:integer\" />\n" + //
 						"\t\t\t<xs:element name=\"debug\" type=\"xs:boolean\" />\n" + //
 						"\t\t\t<xs:element name=\"workingDirectory\" type=\"xs:string\" />\n" + //
+						"\t\t\t<xs:element name=\"resourceCacheSize\" type=\"xs:integer\" />\n" + //
+						"\t\t\t<xs:element name=\"resourceCacheOffHeap\" type=\"xs:boolean\" />\n" + //
 						"\t\t</xs:sequence>\n" + //
 						"\t</xs:complexType>\n" + //
 						"\t<xs:complexType name=\"windowType\">\n" + //
@@ -288,7 +312,11 @@ public final class Configuration {
 						"\t\t\t<xs:element name=\"directory\" type=\"xs:string\" />\n" + //
 						"\t\t\t<xs:element name=\"extension\" type=\"xs:string\" />\n" + //
 						"\t\t\t<xs:element name=\"backupExtension\" type=\"xs:string\" />\n" + //
-						"\t\t\t<xs:element name=\"maxRotatingFileLineCount\" type=\"xs:integer\" />\n" + //
+						"\t\t\t<xs:element name=\"maxRotatingFileSize\" type=\"xs:integer\" />\n" + //
+						"\t\t\t<xs:element name=\"maxRotatedFileCount\" type=\"xs:integer\" />\n" + //
+						"\t\t\t<xs:element name=\"compressRotatedFiles\" type=\"xs:boolean\" />\n" + //
+						"\t\t\t<xs:element name=\"rateLimitPerSecond\" type=\"xs:decimal\" />\n" + //
+						"\t\t\t<xs:element name=\"rateLimitBurst\" type=\"xs:integer\" />\n" + //
 						"\t\t\t<xs:element name=\"logToConsole\" type=\"xs:boolean\" />\n" + //
 						"\t\t\t<xs:element name=\"logToFile\" type=\"xs:boolean\" />\n" + //
 						"\t\t\t<xs:element name=\"ansiFormatting\" type=\"xs:boolean\" />\n" + //
@@ -332,6 +360,8 @@ public final class Configuration {
 						"\t\t<fixedUpdatesPerSecond>60</fixedUpdatesPerSecond>\n" + //
 						"\t\t<debug>true</debug>\n" + //
 						"\t\t<workingDirectory>" + FileSystem.INSTANCE.getDefaultWorkingDirectory() + "</workingDirectory>\n" + //
+						"\t\t<resourceCacheSize>67108864</resourceCacheSize>\n" + //
+						"\t\t<resourceCacheOffHeap>false</resourceCacheOffHeap>\n" + //
 						"\t</runtime>\n" + //
 						"\t<window>\n" + //
 						"\t\t<title>Kronos</title>\n" + //
@@ -347,7 +377,11 @@ public final class Configuration {
 						"\t\t<directory>logs/</directory>\n" + //
 						"\t\t<extension>.log</extension>\n" + //
 						"\t\t<backupExtension>.bak</backupExtension>\n" + //
-						"\t\t<maxRotatingFileLineCount>10000</maxRotatingFileLineCount>\n" + //
+						"\t\t<maxRotatingFileSize>10485760</maxRotatingFileSize>\n" + //
+						"\t\t<maxRotatedFileCount>20</maxRotatedFileCount>\n" + //
+						"\t\t<compressRotatedFiles>true</compressRotatedFiles>\n" + //
+						"\t\t<rateLimitPerSecond>20</rateLimitPerSecond>\n" + //
+						"\t\t<rateLimitBurst>100</rateLimitBurst>\n" + //
 						"\t\t<logToConsole>true</logToConsole>\n" + //
 						"\t\t<logToFile>true</logToFile>\n" + //
 						"\t\t<ansiFormatting>true</ansiFormatting>\n" + //
@@ -376,13 +410,175 @@ public final class Configuration {
 		}
 	}
 
-	public final record RuntimeData(String implementation, int updatesPerSecond, double updateRate, int fixedUpdatesPerSecond, double fixedUpdateRate, boolean debug, String workingDirectory) {
+	/**
+	 * The schema: every value the configuration holds, by its path below
+	 * {@code application} and its type.
+	 */
+	private static enum Field {
+		APPLICATION_IMPLEMENTATION("@implementation", Type.STRING),
+		RUNTIME_UPDATES_PER_SECOND("runtime/updatesPerSecond", Type.INT),
+		RUNTIME_FIXED_UPDATES_PER_SECOND("runtime/fixedUpdatesPerSecond", Type.INT),
+		RUNTIME_DEBUG("runtime/debug", Type.BOOLEAN),
+		RUNTIME_WORKING_DIRECTORY("runtime/workingDirectory", Type.STRING),
+		RUNTIME_RESOURCE_CACHE_SIZE("runtime/resourceCacheSize", Type.LONG),
+		RUNTIME_RESOURCE_CACHE_OFF_HEAP("runtime/resourceCacheOffHeap", Type.BOOLEAN),
+		WINDOW_TITLE("window/title", Type.STRING),
+		WINDOW_WIDTH("window/width", Type.INT),
+		WINDOW_HEIGHT("window/height", Type.INT),
+		WINDOW_FULLSCREEN("window/fullscreen", Type.BOOLEAN),
+		WINDOW_VSYNC("window/vsync", Type.BOOLEAN),
+		LOGGING_IMPLEMENTATION("logging/@implementation", Type.STRING),
+		LOGGING_NAME("logging/name", Type.STRING),
+		LOGGING_LEVEL("logging/level", Type.STRING),
+		LOGGING_LAYOUT("logging/layout", Type.STRING),
+		LOGGING_DIRECTORY("logging/directory", Type.STRING),
+		LOGGING_EXTENSION("logging/extension", Type.STRING),
+		LOGGING_BACKUP_EXTENSION("logging/backupExtension", Type.STRING),
+		LOGGING_MAX_ROTATING_FILE_SIZE("logging/maxRotatingFileSize", Type.LONG),
+		LOGGING_MAX_ROTATED_FILE_COUNT("logging/maxRotatedFileCount", Type.INT),
+		LOGGING_COMPRESS_ROTATED_FILES("logging/compressRotatedFiles", Type.BOOLEAN),
+		LOGGING_RATE_LIMIT_PER_SECOND("logging/rateLimitPerSecond", Type.DOUBLE),
+		LOGGING_RATE_LIMIT_BURST("logging/rateLimitBurst", Type.INT),
+		LOGGING_LOG_TO_CONSOLE("logging/logToConsole", Type.BOOLEAN),
+		LOGGING_LOG_TO_FILE("logging/logToFile", Type.BOOLEAN),
+		LOGGING_ANSI_FORMATTING("logging/ansiFormatting", Type.BOOLEAN),
+		JOBS_TIMEOUT_SECONDS("jobs/timeoutSeconds", Type.INT),
+		JOBS_SHUTDOWN_TIMEOUT_SECONDS("jobs/shutdownTimeoutSeconds", Type.INT),
+		JOBS_UPDATES_PER_SECOND("jobs/updatesPerSecond", Type.INT),
+		MATH_DEBUG("math/debug", Type.BOOLEAN),
+		MATH_NO_UNSAFE("math/noUnsafe", Type.BOOLEAN),
+		MATH_FORCE_UNSAFE("math/forceUnsafe", Type.BOOLEAN),
+		MATH_FASTMATH("math/fastmath", Type.BOOLEAN),
+		MATH_SIN_LOOKUP("math/sinLookup", Type.BOOLEAN),
+		MATH_SIN_LOOKUP_BITS("math/sinLookupBits", Type.INT),
+		MATH_USE_NUMBER_FORMAT("math/useNumberFormat", Type.BOOLEAN),
+		MATH_USE_MATH_FMA("math/useMathFMA", Type.BOOLEAN),
+		MATH_NUMBER_FORMAT_BIG_DECIMALS("math/numberFormatBigDecimals", Type.INT);
+
+		static final Field[] VALUES = values();
+		static final int COUNT = VALUES.length;
+		static final long SCHEMA_HASH;
+
+		private static final Map<String, Field> s_byPath = new HashMap<String, Field>();
+
+		static {
+			StringBuilder sb = new StringBuilder();
+			for (Field field : VALUES) {
+				s_byPath.put(field.m_path, field);
+				sb.append(field.m_path).append(':').append(field.m_type).append(';');
+			}
+			SCHEMA_HASH = Hash.MURMUR3.hash128(sb.toString())[0];
+		}
+
+		private final String m_path;
+		private final Type m_type;
+
+		private Field(String path, Type type) {
+			this.m_path = path;
+			this.m_type = type;
+		}
+
+		static Field of(String path) {
+			return s_byPath.get(path);
+		}
+	}
+
+	private static enum Type {
+		STRING {
+			@Override
+			Object parse(String text) {
+				return text;
+			}
+
+			@Override
+			Object read(DataInput in) throws IOException {
+				return in.readUTF();
+			}
+
+			@Override
+			void write(DataOutput out, Object value) throws IOException {
+				out.writeUTF((String) value);
+			}
+		},
+		INT {
+			@Override
+			Object parse(String text) {
+				return Integer.parseInt(text);
+			}
+
+			@Override
+			Object read(DataInput in) throws IOException {
+				return in.readInt();
+			}
+
+			@Override
+			void write(DataOutput out, Object value) throws IOException {
+				out.writeInt((Integer) value);
+			}
+		},
+		LONG {
+			@Override
+			Object parse(String text) {
+				return Long.parseLong(text);
+			}
+
+			@Override
+			Object read(DataInput in) throws IOException {
+				return in.readLong();
+			}
+
+			@Override
+			void write(DataOutput out, Object value) throws IOException {
+				out.writeLong((Long) value);
+			}
+		},
+		DOUBLE {
+			@Override
+			Object parse(String text) {
+				return Double.parseDouble(text);
+			}
+
+			@Override
+			Object read(DataInput in) throws IOException {
+				return in.readDouble();
+			}
+
+			@Override
+			void write(DataOutput out, Object value) throws IOException {
+				out.writeDouble((Double) value);
+			}
+		},
+		BOOLEAN {
+			@Override
+			Object parse(String text) {
+				return Boolean.parseBoolean(text);
+			}
+
+			@Override
+			Object read(DataInput in) throws IOException {
+				return in.readBoolean();
+			}
+
+			@Override
+			void write(DataOutput out, Object value) throws IOException {
+				out.writeBoolean((Boolean) value);
+			}
+		};
+
+		abstract Object parse(String text);
+
+		abstract Object read(DataInput in) throws IOException;
+
+		abstract void write(DataOutput out, Object value) throws IOException;
+	}
+
+	public final record RuntimeData(String implementation, int updatesPerSecond, double updateRate, int fixedUpdatesPerSecond, double fixedUpdateRate, boolean debug, String workingDirectory, long resourceCacheSize, boolean resourceCacheOffHeap) {
 	}
 
 	public final record WindowData(String title, int width, int height, boolean fullscreen, boolean vsync) {
 	}
 
-	public final record LoggingData(String implementation, String name, Level level, Layout layout, String directory, String extension, String backupExtension, int maxRotatingFileLineCount, boolean logToConsole, boolean logToFile, boolean ansiFormatting) {
+	public final record LoggingData(String implementation, String name, Level level, Layout layout, String directory, String extension, String backupExtension, long maxRotatingFileSize, int maxRotatedFileCount, boolean compressRotatedFiles, double rateLimitPerSecond, int rateLimitBurst, boolean logToConsole, boolean logToFile, boolean ansiFormatting) {
 	}
 
 	public final record JobsData(int timeoutSeconds, int shutdownTimeoutSeconds, int updatesPerSecond) {
@@ -1,5 +1,8 @@
 package com.starworks.kronos.core;
 
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
 import org.lwjgl.opengl.GL11;
 
 import com.starworks.kronos.Configuration;
@@ -7,10 +10,13 @@ import com.starworks.kronos.core.imgui.ImGuiLayer;
 import com.starworks.kronos.event.Event;
 import com.starworks.kronos.event.EventCallback;
 import com.starworks.kronos.event.EventManager;
+import com.starworks.kronos.event.EventQueue;
 import com.starworks.kronos.exception.KronosRuntimeException;
 import com.starworks.kronos.files.FileSystem;
+import com.starworks.kronos.files.FileWatcher;
 import com.starworks.kronos.input.InputManager;
 import com.starworks.kronos.jobs.Job;
+import com.starworks.kronos.jobs.JobFence;
 import com.starworks.kronos.jobs.JobManager;
 import com.starworks.kronos.locale.StringTable;
 import com.starworks.kronos.logging.Logger;
@@ -27,6 +33,7 @@ public abstract class Application implements AutoCloseable {
 	private static final double NANOS_PER_SECOND = 1e9;
 
 	protected final EventManager m_eventManager;
+	protected final EventQueue m_eventQueue;
 	protected final Window m_window;
 	protected final LayerStack m_layerStack;
 	protected final ImGuiLayer m_imGuiLayer;
@@ -36,6 +43,9 @@ public abstract class Application implements AutoCloseable {
 	private final TimeStep m_timeStep;
 	private final TimeStep m_fixedTimeStep;
 	private final double m_fixedUpdateRate;
+	private final long m_frameBudgetNanos;
+	private long m_frame;
+	private volatile boolean m_queueEvents;
 	private long m_currentTime;
 	private double m_deltaTime;
 	private long m_lastTime;
@@ -55,6 +65,7 @@ public abstract class Application implements AutoCloseable {
 		double updateRate = Configuration.runtime.updateRate();
 		double fixedUpdateRate = Configuration.runtime.fixedUpdateRate();
 		this.m_eventManager = new EventManager();
+		this.m_eventQueue = new EventQueue();
 		this.m_window = Window.create(width, height, title).onEvent(this::onEvent);
 		this.m_layerStack = new LayerStack();
 		this.m_imGuiLayer = new ImGuiLayer();
@@ -64,6 +75,9 @@ public abstract class Application implements AutoCloseable {
 		this.m_timeStep = new TimeStep(updateRate);
 		this.m_fixedTimeStep = new TimeStep(fixedUpdateRate);
 		this.m_fixedUpdateRate = fixedUpdateRate;
+		this.m_frameBudgetNanos = (long) (updateRate * NANOS_PER_SECOND) >> 1;
+		this.m_frame = 0;
+		this.m_queueEvents = false;
 		this.m_lastTime = 0;
 		this.m_running = false;
 
@@ -89,6 +103,14 @@ public abstract class Application implements AutoCloseable {
 	}
 
 	private final boolean onEvent(final Event event) {
+		if (m_queueEvents) {
+			m_eventQueue.offer(event);
+			return false;
+		}
+		return dispatchEvent(event);
+	}
+
+	private final boolean dispatchEvent(final Event event) {
 		if (m_layerStack.onEvent(event)) {
 			return true;
 		}
@@ -107,6 +129,22 @@ public abstract class Application implements AutoCloseable {
 		m_eventManager.unregister(eventType, callback);
 	}
 
+	/**
+	 * Switches between dispatching window events as they arrive and queueing
+	 * them to be dispatched together at the start of the next frame, coalescing
+	 * redundant ones such as mouse moves.
+	 */
+	public final void setQueuedEvents(final boolean queued) {
+		m_queueEvents = queued;
+		if (!queued) {
+			m_eventQueue.drain(this::dispatchEvent);
+		}
+	}
+
+	public final boolean isQueuedEvents() {
+		return m_queueEvents;
+	}
+
 	public final void addLayer(final Layer layer) {
 		m_layerStack.pushLayer(layer);
 	}
@@ -118,12 +156,34 @@ public abstract class Application implements AutoCloseable {
 	public final void submitJob(final Job<?> job) {
 		m_jobManager.submit(job);
 	}
-	
+
+	public final JobFence submitJob(final Job<?> job, final long frame) {
+		return m_jobManager.submit(job, frame);
+	}
+
+	public final <T> void completeOnMainThread(final Job<T> job, final Consumer<? super T> action) {
+		m_jobManager.completeOnMainThread(job, action);
+	}
+
+	public final void runOnMainThread(final Runnable task) {
+		m_jobManager.runOnMainThread(task);
+	}
+
+	public final long getFrame() {
+		return m_frame;
+	}
+
 	public final void loop() {
 		try {
 			for (; m_running || !m_window.shouldClose();) {
 				time();
 
+				if (!m_jobManager.awaitFrame(m_frame, m_frameBudgetNanos, TimeUnit.NANOSECONDS)) {
+					LOGGER.warn("Jobs fenced to frame {0} did not complete within the frame budget", m_frame);
+				}
+				m_jobManager.drainMainThreadQueue(m_frameBudgetNanos, TimeUnit.NANOSECONDS);
+				m_eventQueue.drain(this::dispatchEvent);
+
 				GL11.glClearColor(0.1f, 0.1f, 0.1f, 1.0f);
 				GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
 
@@ -138,6 +198,7 @@ public abstract class Application implements AutoCloseable {
 				m_imGuiLayer.end();
 
 				m_window.update();
+				m_frame++;
 			}
 		} catch (Exception e) {
 			LOGGER.error("Unhandeled exception propagated to main loop: ", e);
@@ -170,6 +231,7 @@ public abstract class Application implements AutoCloseable {
 		m_window.close();
 		m_jobManager.shutdown();
 		StringTable.INSTANCE.shutdown();
+		FileWatcher.INSTANCE.shutdown();
 		LOGGER.close();
 		FileSystem.INSTANCE.shutdown();
 	}
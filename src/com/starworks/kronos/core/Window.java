@@ -96,61 +96,69 @@ public final class Window implements AutoCloseable {
 
 	private void registerEvents() {
 		GLFW.glfwSetKeyCallback(m_windowPointer, (window, key, scancode, action, mods) -> {
-			m_onEvent.accept(switch (action) {
-			case GLFW.GLFW_PRESS -> new Event.KeyPressed(key, scancode, mods, System.nanoTime());
-			case GLFW.GLFW_RELEASE -> new Event.KeyReleased(key, scancode, mods, System.nanoTime());
-			case GLFW.GLFW_REPEAT -> new Event.KeyRepeated(key, scancode, mods, System.nanoTime());
+			dispatch(switch (action) {
+			case GLFW.GLFW_PRESS -> Event.KeyPressed.obtain(key, scancode, mods, System.nanoTime());
+			case GLFW.GLFW_RELEASE -> Event.KeyReleased.obtain(key, scancode, mods, System.nanoTime());
+			case GLFW.GLFW_REPEAT -> Event.KeyRepeated.obtain(key, scancode, mods, System.nanoTime());
 			default -> throw new IllegalArgumentException(Exceptions.getMessage("core.window.invalidEvent"));
 			});
 		});
 		GLFW.glfwSetMouseButtonCallback(m_windowPointer, (window, button, action, mods) -> {
-			m_onEvent.accept(switch (action) {
-			case GLFW.GLFW_PRESS -> new Event.MouseButtonPressed(button, mods, System.nanoTime());
-			case GLFW.GLFW_RELEASE -> new Event.MouseButtonReleased(button, mods, System.nanoTime());
+			dispatch(switch (action) {
+			case GLFW.GLFW_PRESS -> Event.MouseButtonPressed.obtain(button, mods, System.nanoTime());
+			case GLFW.GLFW_RELEASE -> Event.MouseButtonReleased.obtain(button, mods, System.nanoTime());
 			default -> throw new IllegalArgumentException(Exceptions.getMessage("core.window.invalidEvent"));
 			});
 		});
 		GLFW.glfwSetCursorPosCallback(m_windowPointer, (window, xpos, ypos) -> {
-			m_onEvent.accept(new Event.MouseMoved(xpos, ypos, System.nanoTime()));
+			dispatch(Event.MouseMoved.obtain(xpos, ypos, System.nanoTime()));
 		});
 		GLFW.glfwSetScrollCallback(m_windowPointer, (window, xoffset, yoffset) -> {
-			m_onEvent.accept(new Event.MouseScrolled(xoffset, yoffset, System.nanoTime()));
+			dispatch(Event.MouseScrolled.obtain(xoffset, yoffset, System.nanoTime()));
 		});
 		GLFW.glfwSetWindowSizeCallback(m_windowPointer, (window, width, height) -> {
-			m_onEvent.accept(new Event.WindowResized(width, height, System.nanoTime()));
+			dispatch(Event.WindowResized.obtain(width, height, System.nanoTime()));
 		});
 		GLFW.glfwSetWindowCloseCallback(m_windowPointer, window -> {
-			m_onEvent.accept(new Event.WindowClosed(System.nanoTime()));
+			dispatch(Event.WindowClosed.obtain(System.nanoTime()));
 		});
 		GLFW.glfwSetWindowPosCallback(m_windowPointer, (window, xpos, ypos) -> {
-			m_onEvent.accept(new Event.WindowMoved(xpos, ypos, System.nanoTime()));
+			dispatch(Event.WindowMoved.obtain(xpos, ypos, System.nanoTime()));
 		});
 		GLFW.glfwSetWindowFocusCallback(m_windowPointer, (window, focused) -> {
 			if (focused) {
-				m_onEvent.accept(new Event.WindowFocusGained(System.nanoTime()));
+				dispatch(Event.WindowFocusGained.obtain(System.nanoTime()));
 			} else {
-				m_onEvent.accept(new Event.WindowFocusLost(System.nanoTime()));
+				dispatch(Event.WindowFocusLost.obtain(System.nanoTime()));
 			}
 		});
 		GLFW.glfwSetWindowIconifyCallback(m_windowPointer, (window, iconified) -> {
 			if (iconified) {
-				m_onEvent.accept(new Event.WindowMinimized(System.nanoTime()));
+				dispatch(Event.WindowMinimized.obtain(System.nanoTime()));
 			} else {
-				m_onEvent.accept(new Event.WindowRestored(System.nanoTime()));
+				dispatch(Event.WindowRestored.obtain(System.nanoTime()));
 			}
 		});
 		GLFW.glfwSetWindowMaximizeCallback(m_windowPointer, (window, maximized) -> {
 			if (maximized) {
-				m_onEvent.accept(new Event.WindowMaximized(System.nanoTime()));
+				dispatch(Event.WindowMaximized.obtain(System.nanoTime()));
 			} else {
-				m_onEvent.accept(new Event.WindowUnmaximized(System.nanoTime()));
+				dispatch(Event.WindowUnmaximized.obtain(System.nanoTime()));
 			}
 		});
 		GLFW.glfwSetWindowRefreshCallback(m_windowPointer, window -> {
-			m_onEvent.accept(new Event.WindowRefreshed(System.nanoTime()));
+			dispatch(Event.WindowRefreshed.obtain(System.nanoTime()));
 		});
 	}
 
+	private void dispatch(Event event) {
+		try {
+			m_onEvent.accept(event);
+		} finally {
+			event.release();
+		}
+	}
+
 	public void update() {
 		GLFW.glfwPollEvents();
 		m_context.swapBuffers();
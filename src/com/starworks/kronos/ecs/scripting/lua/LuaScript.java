@@ -3,7 +3,9 @@ package com.starworks.kronos.ecs.scripting.lua;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 
+import org.luaj.vm2.LuaError;
 import org.luaj.vm2.LuaValue;
 import org.luaj.vm2.lib.jse.CoerceJavaToLua;
 
@@ -11,12 +13,23 @@ import com.starworks.kronos.ecs.Entity;
 import com.starworks.kronos.ecs.scripting.Script;
 import com.starworks.kronos.files.FileHandle;
 import com.starworks.kronos.files.FileSystem;
+import com.starworks.kronos.files.FileWatcher;
+import com.starworks.kronos.logging.Logger;
 
+/*
+ * Scripts are watched for changes. A changed script is loaded again the next time its update
+ * function is fetched, on the engine's thread, and keeps its previous functions if it fails to load.
+ */
 public final class LuaScript implements Script {
+	private final Logger LOGGER = Logger.getLogger(LuaScript.class);
 
-	private final LuaValue m_chunk;
-	private final LuaValue m_initializeFunction;
-	private final LuaValue m_updateFunction;
+	private final LuaEngine m_engine;
+	private final String m_fileName;
+	private final FileWatcher.Subscription m_subscription;
+	private LuaValue m_chunk;
+	private LuaValue m_initializeFunction;
+	private LuaValue m_updateFunction;
+	private volatile boolean m_modified;
 
 	private LuaScript(LuaEngine engine, String fileName) {
 		FileHandle handle = null;
@@ -25,19 +38,73 @@ public final class LuaScript implements Script {
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
+		this.m_engine = engine;
+		this.m_fileName = fileName;
 		try {
-			this.m_chunk = engine.getGlobals().load(new FileInputStream(handle.getFile()), fileName.substring(fileName.lastIndexOf("/") + 1), "t", engine.getGlobals());
-			this.m_chunk.call();
+			load(handle);
 		} catch (FileNotFoundException e) {
 			throw new RuntimeException("Error: Lua script '" + fileName + "' was unable to load");
 		}
 
-		this.m_initializeFunction = engine.getGlobals().get("initialize");
-		this.m_updateFunction = engine.getGlobals().get("update");
-		
 		if (m_initializeFunction.isnil() || m_updateFunction.isnil()) {
 			throw new RuntimeException("Error: Lua script '" + fileName + "' must have both 'initialize' and 'update' functions");
 		}
+		this.m_subscription = watch(handle);
+	}
+
+	private void load(FileHandle handle) throws FileNotFoundException {
+		try (InputStream input = new FileInputStream(handle.getFile())) {
+			this.m_chunk = m_engine.getGlobals().load(input, m_fileName.substring(m_fileName.lastIndexOf("/") + 1), "t", m_engine.getGlobals());
+			this.m_chunk.call();
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			throw new LuaError(e);
+		}
+
+		this.m_initializeFunction = m_engine.getGlobals().get("initialize");
+		this.m_updateFunction = m_engine.getGlobals().get("update");
+	}
+
+	private FileWatcher.Subscription watch(FileHandle handle) {
+		try {
+			return FileWatcher.INSTANCE.watch(handle.getFile().toPath(), (path, change) -> {
+				if (change != FileWatcher.Change.DELETED) {
+					m_modified = true;
+				}
+			});
+		} catch (IOException e) {
+			LOGGER.warn("Unable to watch Lua script '{0}' for changes", m_fileName);
+			return null;
+		}
+	}
+
+	private void reload() {
+		m_modified = false;
+		LuaValue chunk = m_chunk;
+		LuaValue initializeFunction = m_initializeFunction;
+		LuaValue updateFunction = m_updateFunction;
+		try {
+			load(FileSystem.INSTANCE.getFileHandle(m_fileName, false, false));
+			if (m_initializeFunction.isnil() || m_updateFunction.isnil()) {
+				throw new LuaError("Lua script '" + m_fileName + "' must have both 'initialize' and 'update' functions");
+			}
+			LOGGER.info("Reloaded Lua script '{0}'", m_fileName);
+		} catch (IOException | LuaError e) {
+			LOGGER.error("Unable to reload Lua script '{0}'", e, m_fileName);
+			m_chunk = chunk;
+			m_initializeFunction = initializeFunction;
+			m_updateFunction = updateFunction;
+		}
+	}
+
+	/**
+	 * Stops watching the script's file for changes.
+	 */
+	public void detach() {
+		if (m_subscription != null) {
+			m_subscription.cancel();
+		}
 	}
 	
 	public static LuaScript attach(LuaEngine engine, Entity entity, String fileName) {
@@ -52,6 +119,9 @@ public final class LuaScript implements Script {
 	}
 
 	public LuaValue updateFunction() {
+		if (m_modified) {
+			reload();
+		}
 		return m_updateFunction;
 	}
 
@@ -1,9 +1,22 @@
 package com.starworks.kronos.event;
 
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import com.starworks.kronos.toolkit.collections.pool.ObjectPool;
+
 /*
  * Represents an event. GLFW
+ *
+ * Events created through a subclass's obtain method come from a per type pool
+ * and are reference counted: the producer owns the first reference and
+ * releases it once the event has been posted, at which point the event is
+ * reset and reused. A listener which needs the event after its callback
+ * returns must retain it and release it when done, or keep a clone instead.
+ * Events created with a constructor are never pooled, so retaining and
+ * releasing them is harmless.
  */
-public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased, Event.KeyRepeated, Event.KeyTyped, Event.MouseButtonPressed,
+public sealed abstract class Event implements ObjectPool.Poolable
+								   permits Event.KeyPressed, Event.KeyReleased, Event.KeyRepeated, Event.KeyTyped, Event.MouseButtonPressed,
 										   Event.MouseButtonReleased, Event.MouseMoved, Event.MouseScrolled, Event.WindowResized, Event.WindowClosed,
 										   Event.WindowMoved, Event.WindowFocusGained, Event.WindowFocusLost, Event.WindowMinimized, Event.WindowRestored,
 										   Event.WindowMaximized, Event.WindowUnmaximized, Event.WindowRefreshed {
@@ -14,39 +27,73 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 	public static final int CATEGORY_MOUSE = 4;
 	public static final int CATEGORY_WINDOW = 8;
 
+	private static final AtomicIntegerFieldUpdater<Event> s_references = AtomicIntegerFieldUpdater.newUpdater(Event.class, "m_references");
+
 	protected final EventType m_type;
-	protected final long m_timestamp;
+	protected long m_timestamp;
 	protected boolean m_handled;
+	private volatile int m_references;
+	boolean m_pooled;
 
 	protected Event(EventType type, long timestamp) {
 		this.m_type = type;
 		this.m_timestamp = timestamp;
+		this.m_references = 1;
+		this.m_pooled = false;
+	}
+
+	/**
+	 * Keeps this event from being recycled until a matching {@link #release()}.
+	 *
+	 * @return this event
+	 * @throws IllegalStateException if the event has already been recycled
+	 */
+	public final Event retain() {
+		for (;;) {
+			int references = m_references;
+			if (references <= 0) {
+				throw new IllegalStateException("Cannot retain a " + m_type + " event which has already been released");
+			}
+			if (s_references.compareAndSet(this, references, references + 1)) {
+				return this;
+			}
+		}
+	}
+
+	/**
+	 * Gives up a reference to this event, returning it to its pool once no
+	 * references remain.
+	 *
+	 * @throws IllegalStateException if the event was released more times than
+	 *                               it was retained
+	 */
+	public final void release() {
+		int references = s_references.decrementAndGet(this);
+		if (references == 0) {
+			if (m_pooled) {
+				EventPool.free(this);
+			}
+		} else if (references < 0) {
+			throw new IllegalStateException("A " + m_type + " event was released more times than it was retained");
+		}
+	}
+
+	final void acquire() {
+		m_references = 1;
+	}
+
+	@Override
+	public void reset() {
+		m_timestamp = 0;
+		m_handled = false;
 	}
 
 	public static int getCategory(Class<? extends Event> eventType) {
-		if (eventType == KeyPressed.class) return CATEGORY_INPUT | CATEGORY_KEYBOARD;
-		else if (eventType == KeyReleased.class) return CATEGORY_INPUT | CATEGORY_KEYBOARD;
-		else if (eventType == KeyRepeated.class) return CATEGORY_INPUT | CATEGORY_KEYBOARD;
-		else if (eventType == KeyTyped.class) return CATEGORY_INPUT | CATEGORY_KEYBOARD;
-		else if (eventType == MouseButtonPressed.class) return CATEGORY_INPUT | CATEGORY_MOUSE;
-		else if (eventType == MouseButtonReleased.class) return CATEGORY_INPUT | CATEGORY_MOUSE;
-		else if (eventType == MouseMoved.class) return CATEGORY_INPUT | CATEGORY_MOUSE;
-		else if (eventType == MouseScrolled.class) return CATEGORY_INPUT | CATEGORY_MOUSE;
-		else if (eventType == WindowResized.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowClosed.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowMoved.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowFocusGained.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowFocusLost.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowMinimized.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowRestored.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowMaximized.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowUnmaximized.class) return CATEGORY_WINDOW;
-		else if (eventType == WindowRefreshed.class) return CATEGORY_WINDOW;
-		return CATEGORY_NONE;
+		return EventType.of(eventType).getCategory();
 	}
 	
 	public final boolean isInCategory(int category) {
-		return (getCategory() & category) > 0;
+		return (m_type.getCategory() & category) != 0;
 	}
 	
 	public final EventType getType() {
@@ -54,7 +101,7 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 	}
 
 	public final int getCategory() {
-		return getCategory(this.getClass());
+		return m_type.getCategory();
 	}
 
 	public final long getTimestamp() {
@@ -74,9 +121,13 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class KeyPressed extends Event {
 
-		private final int m_keyCode;
-		private final int m_scancode;
-		private final int m_mods;
+		private int m_keyCode;
+		private int m_scancode;
+		private int m_mods;
+
+		KeyPressed() {
+			super(EventType.KEY_PRESSED, 0);
+		}
 
 		public KeyPressed(int keyCode, int scancode, int mods, long timestamp) {
 			super(EventType.KEY_PRESSED, timestamp);
@@ -85,6 +136,15 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_mods = mods;
 		}
 
+		public static KeyPressed obtain(int keyCode, int scancode, int mods, long timestamp) {
+			KeyPressed event = EventPool.obtain(EventType.KEY_PRESSED);
+			event.m_keyCode = keyCode;
+			event.m_scancode = scancode;
+			event.m_mods = mods;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getKeyCode() {
 			return m_keyCode;
 		}
@@ -105,9 +165,13 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class KeyReleased extends Event {
 
-		private final int m_keyCode;
-		private final int m_scancode;
-		private final int m_mods;
+		private int m_keyCode;
+		private int m_scancode;
+		private int m_mods;
+
+		KeyReleased() {
+			super(EventType.KEY_RELEASED, 0);
+		}
 
 		public KeyReleased(int keyCode, int scancode, int mods, long timestamp) {
 			super(EventType.KEY_RELEASED, timestamp);
@@ -116,6 +180,15 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_mods = mods;
 		}
 
+		public static KeyReleased obtain(int keyCode, int scancode, int mods, long timestamp) {
+			KeyReleased event = EventPool.obtain(EventType.KEY_RELEASED);
+			event.m_keyCode = keyCode;
+			event.m_scancode = scancode;
+			event.m_mods = mods;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getKeyCode() {
 			return m_keyCode;
 		}
@@ -136,9 +209,13 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class KeyRepeated extends Event {
 
-		private final int m_keyCode;
-		private final int m_scancode;
-		private final int m_mods;
+		private int m_keyCode;
+		private int m_scancode;
+		private int m_mods;
+
+		KeyRepeated() {
+			super(EventType.KEY_REPEATED, 0);
+		}
 
 		public KeyRepeated(int keyCode, int scancode, int mods, long timestamp) {
 			super(EventType.KEY_REPEATED, timestamp);
@@ -147,6 +224,15 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_mods = mods;
 		}
 
+		public static KeyRepeated obtain(int keyCode, int scancode, int mods, long timestamp) {
+			KeyRepeated event = EventPool.obtain(EventType.KEY_REPEATED);
+			event.m_keyCode = keyCode;
+			event.m_scancode = scancode;
+			event.m_mods = mods;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getKeyCode() {
 			return m_keyCode;
 		}
@@ -167,8 +253,12 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class KeyTyped extends Event {
 
-		private final int m_keyCode;
-		private final int m_mods;
+		private int m_keyCode;
+		private int m_mods;
+
+		KeyTyped() {
+			super(EventType.KEY_TYPED, 0);
+		}
 
 		public KeyTyped(int keyCode, int mods, long timestamp) {
 			super(EventType.KEY_TYPED, timestamp);
@@ -176,6 +266,14 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_mods = mods;
 		}
 
+		public static KeyTyped obtain(int keyCode, int mods, long timestamp) {
+			KeyTyped event = EventPool.obtain(EventType.KEY_TYPED);
+			event.m_keyCode = keyCode;
+			event.m_mods = mods;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getKeyCode() {
 			return m_keyCode;
 		}
@@ -192,8 +290,12 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class MouseButtonPressed extends Event {
 
-		private final int m_button;
-		private final int m_mods;
+		private int m_button;
+		private int m_mods;
+
+		MouseButtonPressed() {
+			super(EventType.MOUSE_PRESSED, 0);
+		}
 
 		public MouseButtonPressed(int button, int mods, long timestamp) {
 			super(EventType.MOUSE_PRESSED, timestamp);
@@ -201,6 +303,14 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_mods = mods;
 		}
 
+		public static MouseButtonPressed obtain(int button, int mods, long timestamp) {
+			MouseButtonPressed event = EventPool.obtain(EventType.MOUSE_PRESSED);
+			event.m_button = button;
+			event.m_mods = mods;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getButton() {
 			return m_button;
 		}
@@ -217,8 +327,12 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class MouseButtonReleased extends Event {
 
-		private final int m_button;
-		private final int m_mods;
+		private int m_button;
+		private int m_mods;
+
+		MouseButtonReleased() {
+			super(EventType.MOUSE_RELEASED, 0);
+		}
 
 		public MouseButtonReleased(int button, int mods, long timestamp) {
 			super(EventType.MOUSE_RELEASED, timestamp);
@@ -226,6 +340,14 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_mods = mods;
 		}
 
+		public static MouseButtonReleased obtain(int button, int mods, long timestamp) {
+			MouseButtonReleased event = EventPool.obtain(EventType.MOUSE_RELEASED);
+			event.m_button = button;
+			event.m_mods = mods;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getButton() {
 			return m_button;
 		}
@@ -242,8 +364,12 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class MouseMoved extends Event {
 
-		private final double m_xPosition;
-		private final double m_yPosition;
+		private double m_xPosition;
+		private double m_yPosition;
+
+		MouseMoved() {
+			super(EventType.MOUSE_MOVED, 0);
+		}
 
 		public MouseMoved(double xPosition, double yPosition, long timestamp) {
 			super(EventType.MOUSE_MOVED, timestamp);
@@ -251,6 +377,14 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_yPosition = yPosition;
 		}
 
+		public static MouseMoved obtain(double xPosition, double yPosition, long timestamp) {
+			MouseMoved event = EventPool.obtain(EventType.MOUSE_MOVED);
+			event.m_xPosition = xPosition;
+			event.m_yPosition = yPosition;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public double getXPosition() {
 			return m_xPosition;
 		}
@@ -267,8 +401,12 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class MouseScrolled extends Event {
 
-		private final double m_xOffset;
-		private final double m_yOffset;
+		private double m_xOffset;
+		private double m_yOffset;
+
+		MouseScrolled() {
+			super(EventType.MOUSE_SCROLLED, 0);
+		}
 
 		public MouseScrolled(double xOffset, double yOffset, long timestamp) {
 			super(EventType.MOUSE_SCROLLED, timestamp);
@@ -276,6 +414,14 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_yOffset = yOffset;
 		}
 
+		public static MouseScrolled obtain(double xOffset, double yOffset, long timestamp) {
+			MouseScrolled event = EventPool.obtain(EventType.MOUSE_SCROLLED);
+			event.m_xOffset = xOffset;
+			event.m_yOffset = yOffset;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public double getXOffset() {
 			return m_xOffset;
 		}
@@ -292,8 +438,12 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowResized extends Event {
 
-		private final int m_width;
-		private final int m_height;
+		private int m_width;
+		private int m_height;
+
+		WindowResized() {
+			super(EventType.WINDOW_RESIZED, 0);
+		}
 
 		public WindowResized(int width, int height, long timestamp) {
 			super(EventType.WINDOW_RESIZED, timestamp);
@@ -301,6 +451,14 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_height = height;
 		}
 
+		public static WindowResized obtain(int width, int height, long timestamp) {
+			WindowResized event = EventPool.obtain(EventType.WINDOW_RESIZED);
+			event.m_width = width;
+			event.m_height = height;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getWidth() {
 			return m_width;
 		}
@@ -317,10 +475,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowClosed extends Event {
 
+		WindowClosed() {
+			super(EventType.WINDOW_CLOSED, 0);
+		}
+
 		public WindowClosed(long timestamp) {
 			super(EventType.WINDOW_CLOSED, timestamp);
 		}
 
+		public static WindowClosed obtain(long timestamp) {
+			WindowClosed event = EventPool.obtain(EventType.WINDOW_CLOSED);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowClosed clone() {
 			return new WindowClosed(m_timestamp);
@@ -329,8 +497,12 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowMoved extends Event {
 
-		private final int m_xPosition;
-		private final int m_yPosition;
+		private int m_xPosition;
+		private int m_yPosition;
+
+		WindowMoved() {
+			super(EventType.WINDOW_MOVED, 0);
+		}
 
 		public WindowMoved(int xPosition, int yPosition, long timestamp) {
 			super(EventType.WINDOW_MOVED, timestamp);
@@ -338,6 +510,14 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 			this.m_yPosition = yPosition;
 		}
 
+		public static WindowMoved obtain(int xPosition, int yPosition, long timestamp) {
+			WindowMoved event = EventPool.obtain(EventType.WINDOW_MOVED);
+			event.m_xPosition = xPosition;
+			event.m_yPosition = yPosition;
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		public int getXPosition() {
 			return m_xPosition;
 		}
@@ -354,10 +534,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowFocusGained extends Event {
 
+		WindowFocusGained() {
+			super(EventType.WINDOW_FOCUS_GAINED, 0);
+		}
+
 		public WindowFocusGained(long timestamp) {
 			super(EventType.WINDOW_FOCUS_GAINED, timestamp);
 		}
 
+		public static WindowFocusGained obtain(long timestamp) {
+			WindowFocusGained event = EventPool.obtain(EventType.WINDOW_FOCUS_GAINED);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowFocusGained clone() {
 			return new WindowFocusGained(m_timestamp);
@@ -366,10 +556,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowFocusLost extends Event {
 
+		WindowFocusLost() {
+			super(EventType.WINDOW_FOCUS_LOST, 0);
+		}
+
 		public WindowFocusLost(long timestamp) {
 			super(EventType.WINDOW_FOCUS_LOST, timestamp);
 		}
 
+		public static WindowFocusLost obtain(long timestamp) {
+			WindowFocusLost event = EventPool.obtain(EventType.WINDOW_FOCUS_LOST);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowFocusLost clone() {
 			return new WindowFocusLost(m_timestamp);
@@ -378,10 +578,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowMinimized extends Event {
 
+		WindowMinimized() {
+			super(EventType.WINDOW_MINIMIZED, 0);
+		}
+
 		public WindowMinimized(long timestamp) {
 			super(EventType.WINDOW_MINIMIZED, timestamp);
 		}
 
+		public static WindowMinimized obtain(long timestamp) {
+			WindowMinimized event = EventPool.obtain(EventType.WINDOW_MINIMIZED);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowMinimized clone() {
 			return new WindowMinimized(m_timestamp);
@@ -390,10 +600,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowRestored extends Event {
 
+		WindowRestored() {
+			super(EventType.WINDOW_RESTORED, 0);
+		}
+
 		public WindowRestored(long timestamp) {
 			super(EventType.WINDOW_RESTORED, timestamp);
 		}
 
+		public static WindowRestored obtain(long timestamp) {
+			WindowRestored event = EventPool.obtain(EventType.WINDOW_RESTORED);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowRestored clone() {
 			return new WindowRestored(m_timestamp);
@@ -402,10 +622,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowMaximized extends Event {
 
+		WindowMaximized() {
+			super(EventType.WINDOW_MAXIMIZED, 0);
+		}
+
 		public WindowMaximized(long timestamp) {
 			super(EventType.WINDOW_MAXIMIZED, timestamp);
 		}
 
+		public static WindowMaximized obtain(long timestamp) {
+			WindowMaximized event = EventPool.obtain(EventType.WINDOW_MAXIMIZED);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowMaximized clone() {
 			return new WindowMaximized(m_timestamp);
@@ -414,10 +644,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowUnmaximized extends Event {
 
+		WindowUnmaximized() {
+			super(EventType.WINDOW_UNMAXIMIZED, 0);
+		}
+
 		public WindowUnmaximized(long timestamp) {
 			super(EventType.WINDOW_UNMAXIMIZED, timestamp);
 		}
 
+		public static WindowUnmaximized obtain(long timestamp) {
+			WindowUnmaximized event = EventPool.obtain(EventType.WINDOW_UNMAXIMIZED);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowUnmaximized clone() {
 			return new WindowUnmaximized(m_timestamp);
@@ -426,10 +666,20 @@ public sealed abstract class Event permits Event.KeyPressed, Event.KeyReleased,
 
 	public static final class WindowRefreshed extends Event {
 
+		WindowRefreshed() {
+			super(EventType.WINDOW_REFRESHED, 0);
+		}
+
 		public WindowRefreshed(long timestamp) {
 			super(EventType.WINDOW_REFRESHED, timestamp);
 		}
 
+		public static WindowRefreshed obtain(long timestamp) {
+			WindowRefreshed event = EventPool.obtain(EventType.WINDOW_REFRESHED);
+			event.m_timestamp = timestamp;
+			return event;
+		}
+
 		@Override
 		public WindowRefreshed clone() {
 			return new WindowRefreshed(m_timestamp);
@@ -1,31 +1,72 @@
 package com.starworks.kronos.event;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+/**
+ * Holds the callbacks for one event type in an immutable array sorted by
+ * descending priority. Changes build a new array and swap it in with a CAS, so
+ * dispatch iterates a plain array without locking and never sees a partially
+ * applied change. Callbacks of equal priority run in registration order.
+ *
+ * @author Ethan Temprovich
+ */
 final class EventDispatcher<E extends Event> {
 
-	private final List<PriorityEventCallback<E>> m_callbacks;
+	private static final PriorityEventCallback<?>[] EMPTY = new PriorityEventCallback<?>[0];
+
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<EventDispatcher, PriorityEventCallback[]> s_callbacks = AtomicReferenceFieldUpdater.newUpdater(EventDispatcher.class, PriorityEventCallback[].class, "m_callbacks");
+
+	private volatile PriorityEventCallback<?>[] m_callbacks;
 
 	EventDispatcher() {
-		this.m_callbacks = new CopyOnWriteArrayList<PriorityEventCallback<E>>();
+		this.m_callbacks = EMPTY;
 	}
 
-	@SuppressWarnings("unchecked")
 	void add(PriorityEventCallback<? extends Event> callback) {
-        m_callbacks.add((PriorityEventCallback<E>) callback);
-        m_callbacks.sort(Comparator.comparingInt(PriorityEventCallback<E>::priority).reversed());
-    }
+		for (;;) {
+			PriorityEventCallback<?>[] current = m_callbacks;
+			int index = insertionPoint(current, callback.priority());
+			PriorityEventCallback<?>[] next = new PriorityEventCallback<?>[current.length + 1];
+			System.arraycopy(current, 0, next, 0, index);
+			next[index] = callback;
+			System.arraycopy(current, index, next, index + 1, current.length - index);
+			if (s_callbacks.compareAndSet(this, current, next)) {
+				return;
+			}
+		}
+	}
 
 	void remove(EventCallback<? extends Event> callback) {
-		m_callbacks.removeIf(wrapper -> wrapper.callback().equals(callback));
+		for (;;) {
+			PriorityEventCallback<?>[] current = m_callbacks;
+			int matches = 0;
+			for (PriorityEventCallback<?> wrapper : current) {
+				if (wrapper.callback().equals(callback)) {
+					matches++;
+				}
+			}
+			if (matches == 0) {
+				return;
+			}
+			PriorityEventCallback<?>[] next = matches == current.length ? EMPTY : new PriorityEventCallback<?>[current.length - matches];
+			int j = 0;
+			for (PriorityEventCallback<?> wrapper : current) {
+				if (!wrapper.callback().equals(callback)) {
+					next[j++] = wrapper;
+				}
+			}
+			if (s_callbacks.compareAndSet(this, current, next)) {
+				return;
+			}
+		}
 	}
 
 	@SuppressWarnings("unchecked")
 	boolean dispatch(Event event) {
-		for (var wrapper : m_callbacks) {
-			if (wrapper.callback().accept((E) event)) {
+		PriorityEventCallback<?>[] callbacks = m_callbacks;
+		for (int i = 0; i < callbacks.length; i++) {
+			if (((EventCallback<E>) callbacks[i].callback()).accept((E) event)) {
 				return true;
 			}
 		}
@@ -33,6 +74,24 @@ final class EventDispatcher<E extends Event> {
 	}
 
 	void clear() {
-		m_callbacks.clear();
+		m_callbacks = EMPTY;
+	}
+
+	/**
+	 * Returns the index after every callback with a priority at least
+	 * {@code priority}, so that equal priorities keep registration order.
+	 */
+	private static int insertionPoint(PriorityEventCallback<?>[] callbacks, int priority) {
+		int low = 0;
+		int high = callbacks.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (callbacks[mid].priority() >= priority) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
 	}
 }
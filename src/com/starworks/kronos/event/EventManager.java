@@ -1,25 +1,25 @@
 package com.starworks.kronos.event;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
+/**
+ * Routes posted events to the callbacks registered for their type. Dispatchers
+ * live in an array indexed by {@link EventType#getIndex()}, so posting an
+ * event is an array load rather than a hash lookup by class.
+ *
+ * @author Ethan Temprovich
+ */
 public final class EventManager {
 
-	private final Map<Class<? extends Event>, EventDispatcher<? extends Event>> m_dispatch;
+	private final EventDispatcher<?>[] m_dispatch;
 
-	@SuppressWarnings("unchecked")
 	public EventManager() {
-		this.m_dispatch = new ConcurrentHashMap<Class<? extends Event>, EventDispatcher<? extends Event>>();
-		Class<Event> eventClass = Event.class;
-		for (var subclass : eventClass.getClasses()) {
-			if (eventClass.isAssignableFrom(subclass)) {
-				m_dispatch.put((Class<? extends Event>) subclass, new EventDispatcher<>());
-			}
+		this.m_dispatch = new EventDispatcher<?>[EventType.COUNT];
+		for (EventType type : EventType.values()) {
+			m_dispatch[type.getIndex()] = new EventDispatcher<>();
 		}
 	}
 
 	public <E extends Event> void register(Class<E> eventClass, EventCallback<E> callback, int priority) {
-	    m_dispatch.get(eventClass).add(new PriorityEventCallback<E>(callback, priority));
+	    dispatcher(eventClass).add(new PriorityEventCallback<E>(callback, priority));
 	}
 
 	public <E extends Event> void register(Class<E> eventClass, EventCallback<E> callback) {
@@ -27,14 +27,24 @@ public final class EventManager {
 	}
 
 	public <E extends Event> void unregister(Class<E> eventClass, EventCallback<E> callback) {
-		m_dispatch.get(eventClass).remove(callback);
+		dispatcher(eventClass).remove(callback);
 	}
 
 	public boolean post(Event event) {
-		return event.setHandled(m_dispatch.get(event.getClass()).dispatch(event));
+		return event.setHandled(m_dispatch[event.getType().getIndex()].dispatch(event));
 	}
 
 	public void clear() {
-		m_dispatch.values().forEach(EventDispatcher::clear);
+		for (var dispatcher : m_dispatch) {
+			dispatcher.clear();
+		}
+	}
+
+	private EventDispatcher<?> dispatcher(Class<? extends Event> eventClass) {
+		EventType type = EventType.of(eventClass);
+		if (type == EventType.NONE) {
+			throw new IllegalArgumentException("Cannot register callbacks for " + eventClass.getName() + ", it is not a concrete event type");
+		}
+		return m_dispatch[type.getIndex()];
 	}
 }
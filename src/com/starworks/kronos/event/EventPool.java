@@ -0,0 +1,69 @@
+package com.starworks.kronos.event;
+
+import com.starworks.kronos.toolkit.collections.pool.ObjectPool;
+
+/**
+ * One {@link ObjectPool} per {@link EventType}, indexed by the type's index.
+ *
+ * @author Ethan Temprovich
+ */
+final class EventPool {
+
+	private static final int CAPACITY = 1 << 8;
+
+	private static final ObjectPool<?>[] s_pools = new ObjectPool<?>[EventType.COUNT];
+
+	static {
+		for (EventType type : EventType.values()) {
+			if (type != EventType.NONE) {
+				s_pools[type.getIndex()] = new ObjectPool<Event>(CAPACITY) {
+					@Override
+					protected Event create() {
+						Event event = EventPool.create(type);
+						event.m_pooled = true;
+						return event;
+					}
+				};
+			}
+		}
+	}
+
+	private EventPool() {
+	}
+
+	@SuppressWarnings("unchecked")
+	static <E extends Event> E obtain(EventType type) {
+		E event = ((ObjectPool<E>) s_pools[type.getIndex()]).obtain();
+		event.acquire();
+		return event;
+	}
+
+	@SuppressWarnings("unchecked")
+	static void free(Event event) {
+		((ObjectPool<Event>) s_pools[event.getType().getIndex()]).free(event);
+	}
+
+	private static Event create(EventType type) {
+		return switch (type) {
+		case KEY_PRESSED         -> new Event.KeyPressed();
+		case KEY_RELEASED        -> new Event.KeyReleased();
+		case KEY_REPEATED        -> new Event.KeyRepeated();
+		case KEY_TYPED           -> new Event.KeyTyped();
+		case MOUSE_PRESSED       -> new Event.MouseButtonPressed();
+		case MOUSE_RELEASED      -> new Event.MouseButtonReleased();
+		case MOUSE_MOVED         -> new Event.MouseMoved();
+		case MOUSE_SCROLLED      -> new Event.MouseScrolled();
+		case WINDOW_RESIZED      -> new Event.WindowResized();
+		case WINDOW_CLOSED       -> new Event.WindowClosed();
+		case WINDOW_MOVED        -> new Event.WindowMoved();
+		case WINDOW_FOCUS_GAINED -> new Event.WindowFocusGained();
+		case WINDOW_FOCUS_LOST   -> new Event.WindowFocusLost();
+		case WINDOW_MINIMIZED    -> new Event.WindowMinimized();
+		case WINDOW_RESTORED     -> new Event.WindowRestored();
+		case WINDOW_MAXIMIZED    -> new Event.WindowMaximized();
+		case WINDOW_UNMAXIMIZED  -> new Event.WindowUnmaximized();
+		case WINDOW_REFRESHED    -> new Event.WindowRefreshed();
+		case NONE                -> throw new IllegalArgumentException("Cannot pool events of type " + type);
+		};
+	}
+}
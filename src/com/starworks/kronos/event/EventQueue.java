@@ -0,0 +1,175 @@
+package com.starworks.kronos.event;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Collects events for delivery once per frame instead of on the thread that
+ * produced them. Events are written into a pre-allocated array which is
+ * swapped with a second one when the queue is drained, so events offered by a
+ * listener during a drain wait for the next frame.
+ * <p>
+ * Types marked as coalescing keep only their latest event per frame: offering
+ * one clears the slot of the previous event of the same type and appends the
+ * new one, preserving its order relative to other types. By default this
+ * applies to mouse moves and window resizes, moves and refreshes, which only
+ * ever matter for their final state.
+ * <p>
+ * The queue retains every event it is offered and releases it once it has
+ * been delivered, replaced or cleared, so pooled events stay valid while they
+ * wait.
+ *
+ * @author Ethan Temprovich
+ */
+public final class EventQueue {
+
+	private static final int DEFAULT_CAPACITY = 1 << 10;
+	private static final int NONE = -1;
+
+	private final Object m_lock;
+	private final boolean[] m_coalescing;
+	private final int[] m_lastIndex;
+	private Event[] m_pending;
+	private Event[] m_draining;
+	private int m_size;
+	private long m_coalesced;
+	private boolean m_isDraining;
+
+	public EventQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public EventQueue(int capacity) {
+		this.m_lock = new Object();
+		this.m_coalescing = new boolean[EventType.COUNT];
+		this.m_lastIndex = new int[EventType.COUNT];
+		this.m_pending = new Event[capacity];
+		this.m_draining = new Event[capacity];
+		this.m_size = 0;
+		this.m_coalesced = 0;
+		this.m_isDraining = false;
+		Arrays.fill(m_lastIndex, NONE);
+		setCoalescing(EventType.MOUSE_MOVED, true);
+		setCoalescing(EventType.WINDOW_RESIZED, true);
+		setCoalescing(EventType.WINDOW_MOVED, true);
+		setCoalescing(EventType.WINDOW_REFRESHED, true);
+	}
+
+	public void setCoalescing(EventType type, boolean coalescing) {
+		synchronized (m_lock) {
+			m_coalescing[type.getIndex()] = coalescing;
+			m_lastIndex[type.getIndex()] = NONE;
+		}
+	}
+
+	public boolean isCoalescing(EventType type) {
+		return m_coalescing[type.getIndex()];
+	}
+
+	public void offer(Event event) {
+		int type = event.getType().getIndex();
+		event.retain();
+		Event replaced = null;
+		synchronized (m_lock) {
+			if (m_coalescing[type]) {
+				int last = m_lastIndex[type];
+				if (last != NONE) {
+					replaced = m_pending[last];
+					m_pending[last] = null;
+					m_coalesced++;
+				}
+				m_lastIndex[type] = m_size;
+			}
+			if (m_size == m_pending.length) {
+				m_pending = Arrays.copyOf(m_pending, m_size << 1);
+			}
+			m_pending[m_size++] = event;
+		}
+		if (replaced != null) {
+			replaced.release();
+		}
+	}
+
+	/**
+	 * Delivers every event queued before this call to {@code consumer}, in the
+	 * order they were offered.
+	 *
+	 * @return the number of events delivered
+	 */
+	public int drain(Consumer<? super Event> consumer) {
+		Event[] batch;
+		int size;
+		synchronized (m_lock) {
+			if (m_isDraining || m_size == 0) {
+				return 0;
+			}
+			batch = m_pending;
+			size = m_size;
+			m_pending = m_draining.length >= batch.length ? m_draining : new Event[batch.length];
+			m_draining = batch;
+			m_size = 0;
+			m_isDraining = true;
+			Arrays.fill(m_lastIndex, NONE);
+		}
+		int count = 0;
+		try {
+			for (int i = 0; i < size; i++) {
+				Event event = batch[i];
+				if (event != null) {
+					batch[i] = null;
+					try {
+						consumer.accept(event);
+					} finally {
+						event.release();
+					}
+					count++;
+				}
+			}
+		} finally {
+			for (int i = 0; i < size; i++) {
+				Event event = batch[i];
+				if (event != null) {
+					batch[i] = null;
+					event.release();
+				}
+			}
+			synchronized (m_lock) {
+				m_isDraining = false;
+			}
+		}
+		return count;
+	}
+
+	public int size() {
+		synchronized (m_lock) {
+			return m_size;
+		}
+	}
+
+	/**
+	 * @return the number of events dropped because a later event of the same
+	 *         type replaced them
+	 */
+	public long getCoalescedCount() {
+		synchronized (m_lock) {
+			return m_coalesced;
+		}
+	}
+
+	public void clear() {
+		Event[] cleared;
+		int size;
+		synchronized (m_lock) {
+			cleared = Arrays.copyOf(m_pending, m_size);
+			Arrays.fill(m_pending, 0, m_size, null);
+			Arrays.fill(m_lastIndex, NONE);
+			size = m_size;
+			m_size = 0;
+		}
+		for (int i = 0; i < size; i++) {
+			if (cleared[i] != null) {
+				cleared[i].release();
+			}
+		}
+	}
+}
@@ -1,24 +1,81 @@
 package com.starworks.kronos.event;
 
+import static com.starworks.kronos.event.Event.CATEGORY_INPUT;
+import static com.starworks.kronos.event.Event.CATEGORY_KEYBOARD;
+import static com.starworks.kronos.event.Event.CATEGORY_MOUSE;
+import static com.starworks.kronos.event.Event.CATEGORY_NONE;
+import static com.starworks.kronos.event.Event.CATEGORY_WINDOW;
+
+/**
+ * The type of an {@link Event}, carrying the event class, its category mask
+ * and a dense index so that dispatch can go through an array instead of a
+ * map.
+ *
+ * @author Ethan Temprovich
+ */
 public enum EventType {
 	
-    NONE,
-    KEY_PRESSED,
-    KEY_RELEASED,
-    KEY_REPEATED,
-    KEY_TYPED,
-    MOUSE_PRESSED,
-    MOUSE_RELEASED,
-    MOUSE_MOVED,
-    MOUSE_SCROLLED,
-    WINDOW_RESIZED,
-    WINDOW_CLOSED,
-    WINDOW_MOVED,
-    WINDOW_FOCUS_GAINED,
-    WINDOW_FOCUS_LOST,
-    WINDOW_MINIMIZED,
-    WINDOW_RESTORED,
-    WINDOW_MAXIMIZED,
-    WINDOW_UNMAXIMIZED,
-    WINDOW_REFRESHED;
+    NONE				(null,								CATEGORY_NONE),
+    KEY_PRESSED			(Event.KeyPressed.class,			CATEGORY_INPUT | CATEGORY_KEYBOARD),
+    KEY_RELEASED		(Event.KeyReleased.class,			CATEGORY_INPUT | CATEGORY_KEYBOARD),
+    KEY_REPEATED		(Event.KeyRepeated.class,			CATEGORY_INPUT | CATEGORY_KEYBOARD),
+    KEY_TYPED			(Event.KeyTyped.class,				CATEGORY_INPUT | CATEGORY_KEYBOARD),
+    MOUSE_PRESSED		(Event.MouseButtonPressed.class,	CATEGORY_INPUT | CATEGORY_MOUSE),
+    MOUSE_RELEASED		(Event.MouseButtonReleased.class,	CATEGORY_INPUT | CATEGORY_MOUSE),
+    MOUSE_MOVED			(Event.MouseMoved.class,			CATEGORY_INPUT | CATEGORY_MOUSE),
+    MOUSE_SCROLLED		(Event.MouseScrolled.class,			CATEGORY_INPUT | CATEGORY_MOUSE),
+    WINDOW_RESIZED		(Event.WindowResized.class,			CATEGORY_WINDOW),
+    WINDOW_CLOSED		(Event.WindowClosed.class,			CATEGORY_WINDOW),
+    WINDOW_MOVED		(Event.WindowMoved.class,			CATEGORY_WINDOW),
+    WINDOW_FOCUS_GAINED	(Event.WindowFocusGained.class,		CATEGORY_WINDOW),
+    WINDOW_FOCUS_LOST	(Event.WindowFocusLost.class,		CATEGORY_WINDOW),
+    WINDOW_MINIMIZED	(Event.WindowMinimized.class,		CATEGORY_WINDOW),
+    WINDOW_RESTORED		(Event.WindowRestored.class,		CATEGORY_WINDOW),
+    WINDOW_MAXIMIZED	(Event.WindowMaximized.class,		CATEGORY_WINDOW),
+    WINDOW_UNMAXIMIZED	(Event.WindowUnmaximized.class,		CATEGORY_WINDOW),
+    WINDOW_REFRESHED	(Event.WindowRefreshed.class,		CATEGORY_WINDOW);
+
+	public static final int COUNT = values().length;
+
+	private static final ClassValue<EventType> s_byClass = new ClassValue<EventType>() {
+		@Override
+		protected EventType computeValue(Class<?> type) {
+			for (EventType eventType : values()) {
+				if (eventType.m_eventClass == type) {
+					return eventType;
+				}
+			}
+			return NONE;
+		}
+	};
+
+	private final Class<? extends Event> m_eventClass;
+	private final int m_category;
+	private final int m_index;
+
+	private EventType(Class<? extends Event> eventClass, int category) {
+		this.m_eventClass = eventClass;
+		this.m_category = category;
+		this.m_index = ordinal();
+	}
+
+	/**
+	 * @return the type of events of {@code eventClass}, or {@link #NONE} if it
+	 *         is not a concrete event class
+	 */
+	public static EventType of(Class<? extends Event> eventClass) {
+		return s_byClass.get(eventClass);
+	}
+
+	public Class<? extends Event> getEventClass() {
+		return m_eventClass;
+	}
+
+	public int getCategory() {
+		return m_category;
+	}
+
+	public int getIndex() {
+		return m_index;
+	}
 }
@@ -0,0 +1,260 @@
+package com.starworks.kronos.files;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import com.starworks.kronos.toolkit.crypto.Hash;
+
+/**
+ * A read-only archive of assets written by {@link AssetPackWriter}. Opening a
+ * pack maps it into memory once; looking an asset up is a binary search of the
+ * mapped table of contents, and a stored asset is returned as a slice of the
+ * mapping, so it is read straight from the page cache without a file open or a
+ * copy through the heap. Deflated assets are inflated into a new buffer.
+ * <p>
+ * Layout, big endian:
+ * <ul>
+ * <li>Header: magic, version, entry count, flags, names offset, data
+ * offset.</li>
+ * <li>Table of contents: one fixed size entry per asset, sorted by the
+ * unsigned 64 bit MurmurHash3 of its UTF-8 path; hash, data offset, stored
+ * length, length, name offset, name length and compression.</li>
+ * <li>Names: the UTF-8 paths, used to tell apart assets whose hashes
+ * collide.</li>
+ * <li>Data: each asset's bytes, starting on a {@value #ALIGNMENT} byte
+ * boundary.</li>
+ * </ul>
+ * Paths are relative and separated by {@code /}.
+ *
+ * @author Ethan Temprovich
+ */
+public final class AssetPack implements Closeable {
+
+	public static final String EXTENSION = ".kpak";
+
+	static final int MAGIC = 0x4B50414B;
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 32;
+	static final int ENTRY_SIZE = 32;
+	static final int ALIGNMENT = 16;
+
+	static final byte STORED = 0;
+	static final byte DEFLATED = 1;
+
+	private static final int HASH = 0;
+	private static final int OFFSET = 8;
+	private static final int STORED_LENGTH = 16;
+	private static final int LENGTH = 20;
+	private static final int NAME_OFFSET = 24;
+	private static final int NAME_LENGTH = 28;
+	private static final int COMPRESSION = 30;
+
+	private final Path m_path;
+	private final FileChannel m_channel;
+	private final MappedByteBuffer m_toc;
+	private final MappedByteBuffer m_data;
+	private final int m_count;
+	private final int m_namesOffset;
+	private final long m_dataOffset;
+	private final long m_size;
+
+	private AssetPack(Path path) throws IOException {
+		this.m_path = path;
+		this.m_channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long size = m_channel.size();
+			if (size < HEADER_SIZE) {
+				throw new IOException("Asset pack '" + path + "' is truncated");
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && m_channel.read(header, header.position()) >= 0) {
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException("'" + path + "' is not an asset pack");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported asset pack version " + version + " in '" + path + "'");
+			}
+			this.m_count = header.getInt();
+			header.getInt();
+			long namesOffset = header.getLong();
+			long dataOffset = header.getLong();
+			if (m_count < 0 || namesOffset != HEADER_SIZE + (long) m_count * ENTRY_SIZE || dataOffset < namesOffset || dataOffset > size
+					|| dataOffset > Integer.MAX_VALUE) {
+				throw new IOException("Asset pack '" + path + "' has a corrupt header");
+			}
+			this.m_namesOffset = (int) namesOffset;
+			this.m_dataOffset = dataOffset;
+			this.m_size = size;
+			if (size <= Integer.MAX_VALUE) {
+				this.m_data = m_channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+				this.m_toc = m_data;
+			} else {
+				this.m_data = null;
+				this.m_toc = m_channel.map(FileChannel.MapMode.READ_ONLY, 0, dataOffset);
+			}
+		} catch (IOException | RuntimeException e) {
+			m_channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Opens and maps the pack at {@code path}.
+	 */
+	public static AssetPack open(Path path) throws IOException {
+		return new AssetPack(path);
+	}
+
+	public boolean contains(String path) {
+		return indexOf(path) >= 0;
+	}
+
+	/**
+	 * Returns the contents of an asset as a read-only buffer, or {@code null} if
+	 * the pack does not contain it. Stored assets share the pack's mapping, which
+	 * stays valid after the pack is closed for as long as the buffer is
+	 * reachable.
+	 */
+	public ByteBuffer get(String path) throws IOException {
+		int index = indexOf(path);
+		if (index < 0) {
+			return null;
+		}
+		int entry = HEADER_SIZE + index * ENTRY_SIZE;
+		long offset = m_toc.getLong(entry + OFFSET);
+		int storedLength = m_toc.getInt(entry + STORED_LENGTH);
+		int length = m_toc.getInt(entry + LENGTH);
+		byte compression = m_toc.get(entry + COMPRESSION);
+		if (offset < m_dataOffset || storedLength < 0 || length < 0 || offset > m_size - storedLength
+				|| (compression == STORED && storedLength != length)) {
+			throw new IOException("Asset '" + path + "' in '" + m_path + "' has a corrupt table of contents entry");
+		}
+		ByteBuffer stored = slice(offset, storedLength);
+		return switch (compression) {
+		case STORED -> stored;
+		case DEFLATED -> inflate(path, stored, length);
+		default -> throw new IOException("Asset '" + path + "' in '" + m_path + "' has an unknown compression");
+		};
+	}
+
+	/**
+	 * Opens a stream over an asset, or returns {@code null} if the pack does not
+	 * contain it.
+	 */
+	public InputStream openStream(String path) throws IOException {
+		ByteBuffer buffer = get(path);
+		if (buffer == null) {
+			return null;
+		}
+		return new ByteBufferInputStream(buffer);
+	}
+
+	public int size() {
+		return m_count;
+	}
+
+	/**
+	 * @return the path of the asset at {@code index} in table of contents order
+	 */
+	public String getName(int index) {
+		int entry = HEADER_SIZE + index * ENTRY_SIZE;
+		int length = m_toc.getShort(entry + NAME_LENGTH) & 0xFFFF;
+		byte[] name = new byte[length];
+		m_toc.get(m_namesOffset + m_toc.getInt(entry + NAME_OFFSET), name);
+		return new String(name, StandardCharsets.UTF_8);
+	}
+
+	public Path getPath() {
+		return m_path;
+	}
+
+	@Override
+	public void close() throws IOException {
+		m_channel.close();
+	}
+
+	static long hash(byte[] path) {
+		return Hash.MURMUR3.hash128(path)[0];
+	}
+
+	private int indexOf(String path) {
+		byte[] name = path.getBytes(StandardCharsets.UTF_8);
+		long hash = hash(name);
+		int low = 0;
+		int high = m_count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int compare = Long.compareUnsigned(m_toc.getLong(HEADER_SIZE + mid * ENTRY_SIZE + HASH), hash);
+			if (compare < 0) {
+				low = mid + 1;
+			} else if (compare > 0) {
+				high = mid - 1;
+			} else {
+				while (mid > 0 && m_toc.getLong(HEADER_SIZE + (mid - 1) * ENTRY_SIZE + HASH) == hash) {
+					mid--;
+				}
+				for (; mid < m_count && m_toc.getLong(HEADER_SIZE + mid * ENTRY_SIZE + HASH) == hash; mid++) {
+					if (nameEquals(mid, name)) {
+						return mid;
+					}
+				}
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private boolean nameEquals(int index, byte[] name) {
+		int entry = HEADER_SIZE + index * ENTRY_SIZE;
+		if ((m_toc.getShort(entry + NAME_LENGTH) & 0xFFFF) != name.length) {
+			return false;
+		}
+		int offset = m_namesOffset + m_toc.getInt(entry + NAME_OFFSET);
+		for (int i = 0; i < name.length; i++) {
+			if (m_toc.get(offset + i) != name[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private ByteBuffer slice(long offset, int length) throws IOException {
+		if (m_data != null) {
+			return m_data.slice((int) offset, length);
+		}
+		return m_channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+	}
+
+	private ByteBuffer inflate(String path, ByteBuffer stored, int length) throws IOException {
+		ByteBuffer inflated = ByteBuffer.allocate(length);
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(stored);
+			while (!inflater.finished() && inflated.hasRemaining()) {
+				if (inflater.inflate(inflated) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Asset '" + path + "' in '" + m_path + "' is corrupt", e);
+		} finally {
+			inflater.end();
+		}
+		if (inflated.hasRemaining()) {
+			throw new IOException("Asset '" + path + "' in '" + m_path + "' is truncated");
+		}
+		return inflated.flip().asReadOnlyBuffer();
+	}
+}
@@ -0,0 +1,226 @@
+package com.starworks.kronos.files;
+
+import static com.starworks.kronos.files.AssetPack.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+/**
+ * Builds an {@link AssetPack}. Assets are read when the pack is written, one
+ * at a time, so packing a large directory never holds more than one asset in
+ * memory. When compression is enabled an asset is deflated only if that saves
+ * at least an eighth of its size; anything else is stored so it can be served
+ * straight from the mapping. Run it from the command line to pack a
+ * directory:
+ *
+ * <pre>
+ * java com.starworks.kronos.files.AssetPackWriter resources/ assets.kpak [--store]
+ * </pre>
+ *
+ * @author Ethan Temprovich
+ */
+public final class AssetPackWriter {
+
+	private static final int MAX_NAME_LENGTH = 0xFFFF;
+
+	private final Map<String, Path> m_entries;
+	private final boolean m_compress;
+
+	public AssetPackWriter(boolean compress) {
+		this.m_entries = new LinkedHashMap<String, Path>();
+		this.m_compress = compress;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: AssetPackWriter <directory> <file" + EXTENSION + "> [--store]");
+			System.exit(1);
+		}
+		boolean compress = args.length < 3 || !args[2].equals("--store");
+		AssetPackWriter writer = new AssetPackWriter(compress).addDirectory(Paths.get(args[0]));
+		writer.write(Paths.get(args[1]));
+		System.out.println("Packed " + writer.m_entries.size() + " assets into " + args[1]);
+	}
+
+	/**
+	 * Adds {@code file} under {@code path}, replacing any asset already added
+	 * under it.
+	 */
+	public AssetPackWriter add(String path, Path file) {
+		String name = path.replace('\\', FileSystem.separatorChar);
+		while (name.startsWith(FileSystem.separator)) {
+			name = name.substring(1);
+		}
+		if (name.isEmpty() || name.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_LENGTH) {
+			throw new IllegalArgumentException("Invalid asset path: " + path);
+		}
+		m_entries.put(name, file);
+		return this;
+	}
+
+	/**
+	 * Adds every regular file below {@code directory}, named by its path
+	 * relative to it.
+	 */
+	public AssetPackWriter addDirectory(Path directory) throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.walk(directory)) {
+			files = stream.filter(Files::isRegularFile).sorted().toList();
+		}
+		for (Path file : files) {
+			add(directory.relativize(file).toString(), file);
+		}
+		return this;
+	}
+
+	/**
+	 * Writes the pack to a temporary file next to {@code target} and moves it
+	 * into place, so a reader opening {@code target} never sees it half
+	 * written. A pack which is currently mounted is mapped, and on Windows the
+	 * move fails while the mapping exists; write updates of a mounted pack
+	 * under a new name and swap them with {@link FileSystem#mount(Path)} and
+	 * {@link FileSystem#unmount(AssetPack)} instead.
+	 */
+	public void write(Path target) throws IOException {
+		List<Entry> entries = new ArrayList<Entry>(m_entries.size());
+		int namesLength = 0;
+		for (Map.Entry<String, Path> e : m_entries.entrySet()) {
+			byte[] name = e.getKey().getBytes(StandardCharsets.UTF_8);
+			entries.add(new Entry(name, hash(name), e.getValue()));
+			namesLength += name.length;
+		}
+		entries.sort(Comparator.comparing((Entry e) -> e.m_hash, Long::compareUnsigned).thenComparing(e -> e.m_name, Arrays::compare));
+
+		long namesOffset = HEADER_SIZE + (long) entries.size() * ENTRY_SIZE;
+		long dataOffset = align(namesOffset + namesLength);
+		Path parent = target.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			long position = dataOffset;
+			for (Entry entry : entries) {
+				position = align(position);
+				entry.m_offset = position;
+				position += writeData(channel, entry, position);
+			}
+
+			ByteBuffer toc = ByteBuffer.allocate((int) dataOffset);
+			toc.putInt(MAGIC);
+			toc.putInt(VERSION);
+			toc.putInt(entries.size());
+			toc.putInt(0);
+			toc.putLong(namesOffset);
+			toc.putLong(dataOffset);
+			int nameOffset = 0;
+			for (Entry entry : entries) {
+				toc.putLong(entry.m_hash);
+				toc.putLong(entry.m_offset);
+				toc.putInt(entry.m_storedLength);
+				toc.putInt(entry.m_length);
+				toc.putInt(nameOffset);
+				toc.putShort((short) entry.m_name.length);
+				toc.put(entry.m_compression);
+				toc.put((byte) 0);
+				nameOffset += entry.m_name.length;
+			}
+			for (Entry entry : entries) {
+				toc.put(entry.m_name);
+			}
+			toc.clear();
+			while (toc.hasRemaining()) {
+				channel.write(toc, toc.position());
+			}
+			channel.force(false);
+		}
+		try {
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			Files.deleteIfExists(temporary);
+			throw new IOException("Unable to replace '" + target + "'; if it is mounted, write the pack under a new name instead", e);
+		}
+	}
+
+	/**
+	 * Writes an asset's data at {@code position}.
+	 *
+	 * @return the number of bytes written
+	 */
+	private long writeData(FileChannel channel, Entry entry, long position) throws IOException {
+		long size = Files.size(entry.m_file);
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Asset '" + entry.m_file + "' is too large to pack");
+		}
+		byte[] data = Files.readAllBytes(entry.m_file);
+		entry.m_length = data.length;
+		entry.m_compression = STORED;
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		if (m_compress && data.length > 0) {
+			byte[] deflated = deflate(data);
+			if (deflated.length <= data.length - (data.length >> 3)) {
+				entry.m_compression = DEFLATED;
+				buffer = ByteBuffer.wrap(deflated);
+			}
+		}
+		entry.m_storedLength = buffer.remaining();
+		long written = 0;
+		while (buffer.hasRemaining()) {
+			written += channel.write(buffer, position + written);
+		}
+		return written;
+	}
+
+	private static byte[] deflate(byte[] data) {
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+			byte[] chunk = new byte[1 << 16];
+			while (!deflater.finished()) {
+				out.write(chunk, 0, deflater.deflate(chunk));
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	private static long align(long position) {
+		return (position + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+
+	private static final class Entry {
+
+		final byte[] m_name;
+		final long m_hash;
+		final Path m_file;
+		long m_offset;
+		int m_storedLength;
+		int m_length;
+		byte m_compression;
+
+		Entry(byte[] name, long hash, Path file) {
+			this.m_name = name;
+			this.m_hash = hash;
+			this.m_file = file;
+		}
+	}
+}
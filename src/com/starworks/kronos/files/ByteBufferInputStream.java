@@ -0,0 +1,67 @@
+package com.starworks.kronos.files;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link InputStream} over the remaining bytes of a buffer, such as a
+ * memory mapped file, which reads without copying the buffer first. The
+ * stream consumes a duplicate, so the buffer's own position is left alone.
+ *
+ * @author Ethan Temprovich
+ */
+public final class ByteBufferInputStream extends InputStream {
+
+	private final ByteBuffer m_buffer;
+	private int m_mark;
+
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		this.m_buffer = buffer.duplicate();
+		this.m_mark = m_buffer.position();
+	}
+
+	@Override
+	public int read() {
+		return m_buffer.hasRemaining() ? m_buffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (len == 0) {
+			return 0;
+		}
+		if (!m_buffer.hasRemaining()) {
+			return -1;
+		}
+		int count = Math.min(len, m_buffer.remaining());
+		m_buffer.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(long n) {
+		int count = (int) Math.max(0, Math.min(n, m_buffer.remaining()));
+		m_buffer.position(m_buffer.position() + count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return m_buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public void mark(int readlimit) {
+		m_mark = m_buffer.position();
+	}
+
+	@Override
+	public void reset() {
+		m_buffer.position(m_mark);
+	}
+}
@@ -1,5 +1,6 @@
 package com.starworks.kronos.files;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -8,8 +9,23 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.concurrent.locks.StampedLock;
 
+/**
+ * A file known to the {@link FileSystem}. Besides streams, a handle offers
+ * positional reads and writes through a {@link FileChannel} opened on first use
+ * and kept until the handle is shut down, scatter and gather transfers, and
+ * read-only memory mapped views, so large files can be read without copying
+ * them through the Java heap. Positional operations do not move any shared
+ * position and may be issued from several threads at once.
+ *
+ * @author Ethan Temprovich
+ */
 public final class FileHandle {
 
 	private final File m_file;
@@ -20,6 +36,8 @@ public final class FileHandle {
 	private boolean m_closed;
 	private final StampedLock m_lock;
 	private boolean m_generated;
+	private FileChannel m_readChannel;
+	private FileChannel m_writeChannel;
 
 	FileHandle(String fileName, boolean generateIfNotExist) throws IOException {
 		this.m_file = new File(fileName);
@@ -46,42 +64,219 @@ public final class FileHandle {
 	}
 
 	public void write(String message) throws IOException {
+		append(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	/**
+	 * Appends the contents of {@code handle} to this file, letting the operating
+	 * system transfer the bytes directly where it can.
+	 */
+	public void write(FileHandle handle) throws IOException {
+		FileChannel source = handle.readChannel();
 		long stamp = m_lock.writeLock();
 		try {
-			try (FileOutputStream fos = new FileOutputStream(m_file, true)) {
-				fos.write(message.getBytes());
-				fos.flush();
+			FileChannel target = writeChannel();
+			long position = target.size();
+			long size = source.size();
+			long transferred = 0;
+			while (transferred < size) {
+				long count = source.transferTo(transferred, size - transferred, target.position(position + transferred));
+				if (count <= 0) {
+					break;
+				}
+				transferred += count;
 			}
 		} finally {
 			m_lock.unlockWrite(stamp);
 		}
 	}
 
-	public void write(FileHandle handle) throws IOException {
+	/**
+	 * Appends the remaining bytes of {@code source} to the end of the file.
+	 */
+	public void append(ByteBuffer source) throws IOException {
+		long stamp = m_lock.writeLock();
+		try {
+			FileChannel channel = writeChannel();
+			long position = channel.size();
+			while (source.hasRemaining()) {
+				position += channel.write(source, position);
+			}
+		} finally {
+			m_lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Appends the remaining bytes of each buffer, in order, with as few system
+	 * calls as the operating system allows.
+	 *
+	 * @return the number of bytes written
+	 */
+	public long append(ByteBuffer... sources) throws IOException {
 		long stamp = m_lock.writeLock();
 		try {
-			try (FileOutputStream fos = new FileOutputStream(m_file, true)) {
-				fos.write(handle.readContents());
-				fos.flush();
+			FileChannel channel = writeChannel();
+			channel.position(channel.size());
+			long remaining = 0;
+			for (ByteBuffer source : sources) {
+				remaining += source.remaining();
 			}
+			long written = 0;
+			while (written < remaining) {
+				written += channel.write(sources);
+			}
+			return written;
 		} finally {
 			m_lock.unlockWrite(stamp);
 		}
 	}
 
-	private byte[] readContents() throws IOException {
+	/**
+	 * Writes the remaining bytes of {@code source} starting at
+	 * {@code position}, growing the file if needed.
+	 *
+	 * @return the number of bytes written
+	 */
+	public int write(ByteBuffer source, long position) throws IOException {
+		long stamp = m_lock.writeLock();
+		try {
+			FileChannel channel = writeChannel();
+			int written = 0;
+			while (source.hasRemaining()) {
+				written += channel.write(source, position + written);
+			}
+			return written;
+		} finally {
+			m_lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Reads bytes starting at {@code position} into {@code target}.
+	 *
+	 * @return the number of bytes read, or {@code -1} if {@code position} is at
+	 *         or past the end of the file
+	 */
+	public int read(ByteBuffer target, long position) throws IOException {
+		FileChannel channel = readChannel();
 		long stamp = m_lock.readLock();
 		try {
-			try (FileInputStream fis = new FileInputStream(m_file)) {
-				byte[] data = new byte[(int) m_file.length()];
-				fis.read(data);
-				return data;
+			return channel.read(target, position);
+		} finally {
+			m_lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Fills the remaining space of {@code target} with bytes starting at
+	 * {@code position}.
+	 *
+	 * @throws EOFException if the file ends first
+	 */
+	public void readFully(ByteBuffer target, long position) throws IOException {
+		FileChannel channel = readChannel();
+		long stamp = m_lock.readLock();
+		try {
+			while (target.hasRemaining()) {
+				int read = channel.read(target, position);
+				if (read < 0) {
+					throw new EOFException("File '" + m_fileName + m_fileExtension + "' ended at " + position);
+				}
+				position += read;
 			}
 		} finally {
 			m_lock.unlockRead(stamp);
 		}
 	}
 
+	/**
+	 * Reads consecutive bytes starting at {@code position} into each buffer in
+	 * turn, filling one before moving to the next.
+	 *
+	 * @return the number of bytes read, which is less than requested only if
+	 *         the file ends first
+	 */
+	public long read(ByteBuffer[] targets, long position) throws IOException {
+		long total = 0;
+		for (ByteBuffer target : targets) {
+			while (target.hasRemaining()) {
+				int read = read(target, position + total);
+				if (read < 0) {
+					return total;
+				}
+				total += read;
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Maps the whole file read-only; see {@link #map(long, long)}.
+	 */
+	public MappedByteBuffer map() throws IOException {
+		return map(0, size());
+	}
+
+	/**
+	 * Maps a region of the file read-only. The mapping reads straight from the
+	 * page cache and stays valid after the handle is shut down, until the
+	 * buffer itself is garbage collected. On Windows the file cannot be
+	 * replaced or truncated while a mapping of it is reachable, so only map
+	 * files which are not rewritten while the application runs. A single
+	 * mapping is limited to {@link Integer#MAX_VALUE} bytes.
+	 */
+	public MappedByteBuffer map(long position, long size) throws IOException {
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Cannot map " + size + " bytes of '" + m_fileName + m_fileExtension + "' at once");
+		}
+		return readChannel().map(FileChannel.MapMode.READ_ONLY, position, size);
+	}
+
+	public long size() throws IOException {
+		if (m_readChannel != null) {
+			return m_readChannel.size();
+		}
+		return m_file.length();
+	}
+
+	private synchronized FileChannel readChannel() throws IOException {
+		if (m_closed) {
+			throw new IllegalStateException("FileHandle is closed");
+		}
+		if (m_readChannel == null || !m_readChannel.isOpen()) {
+			m_readChannel = FileChannel.open(m_file.toPath(), StandardOpenOption.READ);
+		}
+		return m_readChannel;
+	}
+
+	private synchronized FileChannel writeChannel() throws IOException {
+		if (m_closed) {
+			throw new IllegalStateException("FileHandle is closed");
+		}
+		if (m_writeChannel == null || !m_writeChannel.isOpen()) {
+			m_writeChannel = FileChannel.open(m_file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		}
+		return m_writeChannel;
+	}
+
+	private synchronized void closeChannels() throws IOException {
+		try {
+			if (m_readChannel != null) {
+				m_readChannel.close();
+			}
+		} finally {
+			m_readChannel = null;
+			try {
+				if (m_writeChannel != null) {
+					m_writeChannel.close();
+				}
+			} finally {
+				m_writeChannel = null;
+			}
+		}
+	}
+
 	public OutputStream writeStream(boolean append) throws FileNotFoundException {
 		if (m_closed) {
 			throw new IllegalStateException("FileHandle is closed");
@@ -104,15 +299,14 @@ public final class FileHandle {
 	public void clearContents() throws IOException {
 		long stamp = m_lock.writeLock();
 		try {
-			try (FileOutputStream fos = new FileOutputStream(m_file)) {
-				// do nothing here, just overwriting the file with an empty one
-			}
+			writeChannel().truncate(0);
 		} finally {
 			m_lock.unlock(stamp);
 		}
 	}
 
 	public void delete() throws IOException {
+		closeChannels();
 		if (!m_file.delete()) {
 			throw new IOException("File '" + m_fileName + m_fileExtension + "' failed to delete");
 		}
@@ -120,6 +314,7 @@ public final class FileHandle {
 
 	void shutdown() throws IOException {
 		m_closed = true;
+		closeChannels();
 	}
 
 	public File getFile() {
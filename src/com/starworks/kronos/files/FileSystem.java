@@ -2,8 +2,13 @@ package com.starworks.kronos.files;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.starworks.kronos.toolkit.SystemInfo;
 
@@ -15,6 +20,7 @@ public enum FileSystem {
 	public static final String separator = "" + separatorChar;
 
 	private static final FileTree s_tree = new FileTree();
+	private static final List<AssetPack> s_packs = new CopyOnWriteArrayList<AssetPack>();
 
 	private String m_workingDirectory = getDefaultWorkingDirectory();
 
@@ -50,10 +56,88 @@ public enum FileSystem {
 		FileHandle fileHandle = s_tree.find(fileName);
 		if (fileHandle != null && !fileHandle.isClosed()) {
 			s_tree.remove(fileName);
+			fileHandle.shutdown();
 		}
 	}
 
+	/**
+	 * Mounts an {@link AssetPack} so its assets are found by
+	 * {@link #readAsset(String)} and {@link #openAsset(String)} before loose
+	 * files. Packs mounted later take precedence over earlier ones.
+	 * <p>
+	 * A mounted pack is mapped, and on Windows a mapped file cannot be
+	 * replaced. To update a pack at run time, write it under a new name, mount
+	 * it and unmount the old one; the old file can be deleted once its
+	 * buffers are no longer reachable.
+	 */
+	public AssetPack mount(Path pack) throws IOException {
+		AssetPack assetPack = AssetPack.open(pack);
+		s_packs.add(0, assetPack);
+		return assetPack;
+	}
+
+	public boolean unmount(AssetPack pack) throws IOException {
+		if (s_packs.remove(pack)) {
+			pack.close();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads an asset from the mounted packs, falling back to the loose file.
+	 * Paths may be absolute or relative to the working directory; assets in a
+	 * pack are served from its mapping without opening a file. Loose files are
+	 * read into a buffer rather than mapped, since they may be rewritten while
+	 * the application runs, which Windows refuses for a mapped file.
+	 *
+	 * @return a read-only buffer over the asset's contents
+	 */
+	public ByteBuffer readAsset(String filepath) throws IOException {
+		if (!s_packs.isEmpty()) {
+			String name = getAssetName(filepath);
+			for (AssetPack pack : s_packs) {
+				ByteBuffer asset = pack.get(name);
+				if (asset != null) {
+					return asset;
+				}
+			}
+		}
+		FileHandle handle = getFileHandle(filepath, false, false);
+		long size = handle.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Asset '" + filepath + "' is too large to read at once");
+		}
+		ByteBuffer buffer = ByteBuffer.allocate((int) size);
+		handle.readFully(buffer, 0);
+		return buffer.flip().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Opens a stream over an asset; see {@link #readAsset(String)}.
+	 */
+	public InputStream openAsset(String filepath) throws IOException {
+		if (!s_packs.isEmpty()) {
+			String name = getAssetName(filepath);
+			for (AssetPack pack : s_packs) {
+				InputStream asset = pack.openStream(name);
+				if (asset != null) {
+					return asset;
+				}
+			}
+		}
+		return getFileHandle(filepath, false, false).readStream();
+	}
+
 	public void shutdown() {
+		for (AssetPack pack : s_packs) {
+			try {
+				pack.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		s_packs.clear();
 		Iterator<FileHandle> iterator = s_tree.iterator();
 		while (iterator.hasNext()) {
 			FileHandle fileHandle = iterator.next();
@@ -80,6 +164,22 @@ public enum FileSystem {
 		return m_workingDirectory + separator + filepath;
 	}
 
+	/**
+	 * Returns the name an asset is stored under in a pack: its path relative to
+	 * the working directory, separated by {@code /}.
+	 */
+	private String getAssetName(String filepath) {
+		String name = filepath.replace(File.separatorChar, separatorChar);
+		if (name.startsWith(m_workingDirectory)) {
+			name = name.substring(m_workingDirectory.length());
+		}
+		int start = 0;
+		while (start < name.length() && name.charAt(start) == separatorChar) {
+			start++;
+		}
+		return name.substring(start);
+	}
+
 	public String getDefaultWorkingDirectory() {
 		String wkdir = SystemInfo.getUserHome() + "\\AppData\\Roaming\\Kronos\\";
 		return wkdir.replace("\\\\", separator).replace("\\", separator);
@@ -2,21 +2,38 @@ package com.starworks.kronos.files;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves paths to {@link FileHandle}s through a concurrent map keyed by the
+ * full path, so a lookup of a known file is a single hash probe that never
+ * blocks. The directory tree is kept alongside it for listing, creating and
+ * removing files, which are rare and serialized by a lock.
+ *
+ * @author Ethan Temprovich
+ */
 public class FileTree implements Iterable<FileHandle> {
 
+	private final Map<String, FileHandle> m_index;
 	private final Node m_root;
+	private final Object m_lock;
 
 	public FileTree() {
+		this.m_index = new ConcurrentHashMap<String, FileHandle>();
 		this.m_root = new Node(FileSystem.INSTANCE.getWorkingDirectory(), null);
+		this.m_lock = new Object();
 	}
 
 	public void insert(FileHandle fileHandle) {
+		synchronized (m_lock) {
+			insert(key(fileHandle.getPath()), fileHandle);
+		}
+	}
+
+	private void insert(String key, FileHandle fileHandle) {
 		String[] dirs = fileHandle.getFileDirectory().split(FileSystem.separator);
 
 		Node current = m_root;
@@ -27,32 +44,34 @@ public class FileTree implements Iterable<FileHandle> {
 			}
 			current = child;
 		}
-		current.add(fileHandle.getFileName() + fileHandle.getFileExtension(), fileHandle);
+		current.add(fileHandle.getFileName() + fileHandle.getFileExtension(), key, fileHandle);
+		m_index.put(key, fileHandle);
 	}
 
 	public FileHandle find(String path) {
-		Node target = findNode(path);
-		if (target == null) {
-			return null;
+		String key = key(path);
+		FileHandle fileHandle = m_index.get(key);
+		if (fileHandle != null) {
+			return fileHandle;
 		}
-		if (target instanceof Leaf) {
-			return ((Leaf) target).m_fileHandle;
-		} else {
-			throw new IllegalArgumentException("The path does not correspond to a file: " + path);
+		synchronized (m_lock) {
+			return leaf(findNode(key), path);
 		}
 	}
 	
 	public FileHandle find(String path, boolean create) throws IOException {
-		Node target = findNode(path);
-		if (target == null) {
-			FileHandle fileHandle = new FileHandle(path, create);
-			insert(fileHandle);
+		String key = key(path);
+		FileHandle fileHandle = m_index.get(key);
+		if (fileHandle != null) {
 			return fileHandle;
 		}
-		if (target instanceof Leaf) {
-			return ((Leaf) target).m_fileHandle;
-		} else {
-			throw new IllegalArgumentException("The path does not correspond to a file: " + path);
+		synchronized (m_lock) {
+			fileHandle = leaf(findNode(key), path);
+			if (fileHandle == null) {
+				fileHandle = new FileHandle(path, create);
+				insert(key, fileHandle);
+			}
+			return fileHandle;
 		}
 	}
 
@@ -60,6 +79,17 @@ public class FileTree implements Iterable<FileHandle> {
 		return find(path, true);
 	}
 	
+	private FileHandle leaf(Node target, String path) {
+		if (target == null) {
+			return null;
+		}
+		if (target instanceof Leaf) {
+			return ((Leaf) target).m_fileHandle;
+		} else {
+			throw new IllegalArgumentException("The path does not correspond to a file: " + path);
+		}
+	}
+
 	private Node findNode(String path) {
 		String[] dirs = path.split(FileSystem.separator);
 		Node current = m_root;
@@ -74,24 +104,28 @@ public class FileTree implements Iterable<FileHandle> {
 	}
 
 	public boolean remove(String path) throws IOException {
-		Node target = findNode(path);
-		if (target == null) {
-			throw new IllegalArgumentException("Invalid path: " + path);
-		}
+		synchronized (m_lock) {
+			Node target = findNode(key(path));
+			if (target == null) {
+				throw new IllegalArgumentException("Invalid path: " + path);
+			}
 
-		if (target instanceof Leaf) {
-			((Leaf) target).m_fileHandle.delete();
-		} else {
-			removeAllChildren(target);
-			new File(path).delete();
+			if (target instanceof Leaf leaf) {
+				m_index.remove(leaf.m_key);
+				leaf.m_fileHandle.delete();
+			} else {
+				removeAllChildren(target);
+				new File(key(path)).delete();
+			}
+			return target.m_parent.remove(target.m_name);
 		}
-		return target.m_parent.remove(target.m_name);
 	}
 
 	private void removeAllChildren(Node node) throws IOException {
 		for (var child : node.m_children.values()) {
-			if (child instanceof Leaf) {
-				((Leaf) child).m_fileHandle.delete();
+			if (child instanceof Leaf leaf) {
+				m_index.remove(leaf.m_key);
+				leaf.m_fileHandle.delete();
 			} else {
 				removeAllChildren(child);
 				new File(child.m_name).delete();
@@ -100,9 +134,13 @@ public class FileTree implements Iterable<FileHandle> {
 		node.m_children.clear();
 	}
 
+	/**
+	 * Iterates the handles known when the iterator is created; handles added or
+	 * removed while iterating may or may not be seen.
+	 */
 	@Override
 	public Iterator<FileHandle> iterator() {
-		return new FileTreeIterator();
+		return m_index.values().iterator();
 	}
 
 	public Node getRoot() {
@@ -112,10 +150,11 @@ public class FileTree implements Iterable<FileHandle> {
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
-		toString(m_root, "", sb);
+		synchronized (m_lock) {
+			toString(m_root, "", sb);
+		}
 		return sb.toString();
 	}
-
 	private void toString(Node node, String indent, StringBuilder sb) {
 		sb.append(indent).append(node.m_name).append("/\n");
 		for (var child : node.m_children.values()) {
@@ -149,8 +188,8 @@ public class FileTree implements Iterable<FileHandle> {
 			return child;
 		}
 
-		Node add(String name, FileHandle fileHandle) {
-			Node child = new Leaf(name, this, fileHandle);
+		Node add(String name, String key, FileHandle fileHandle) {
+			Node child = new Leaf(name, this, key, fileHandle);
 			m_children.put(name, child);
 			return child;
 		}
@@ -162,39 +201,37 @@ public class FileTree implements Iterable<FileHandle> {
 
 	private static final class Leaf extends Node {
 
+		final String m_key;
 		final FileHandle m_fileHandle;
 
-		Leaf(String name, Node parent, FileHandle fileHandle) {
+		Leaf(String name, Node parent, String key, FileHandle fileHandle) {
 			super(name, parent);
+			this.m_key = key;
 			this.m_fileHandle = fileHandle;
 		}
 	}
 
-	private final class FileTreeIterator implements Iterator<FileHandle> {
-
-		private final Deque<Node> m_stack;
-
-		private FileTreeIterator() {
-			this.m_stack = new ArrayDeque<Node>();
-			m_stack.push(m_root);
-		}
-
-		@Override
-		public boolean hasNext() {
-			return !m_stack.isEmpty();
-		}
-
-		@Override
-		public FileHandle next() {
-			Node node = m_stack.pop();
-			for (Node child : node.m_children.values()) {
-				m_stack.push(child);
-			}
-			if (node instanceof Leaf) {
-				return ((Leaf) node).m_fileHandle;
-			} else {
-				return next();
+	/**
+	 * Normalizes separators the way {@link FileHandle#getPath()} does, so that a
+	 * path resolves to the same key however it was joined. Paths which are
+	 * already normal, the common case, are returned as they are.
+	 */
+	private static String key(String path) {
+		if (File.separatorChar != FileSystem.separatorChar) {
+			path = path.replace(File.separatorChar, FileSystem.separatorChar);
+		}
+		int duplicate = path.indexOf("//", 1);
+		if (duplicate == -1) {
+			return path;
+		}
+		StringBuilder sb = new StringBuilder(path.length());
+		sb.append(path, 0, duplicate + 1);
+		for (int i = duplicate + 1; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c != FileSystem.separatorChar || sb.charAt(sb.length() - 1) != FileSystem.separatorChar) {
+				sb.append(c);
 			}
 		}
+		return sb.toString();
 	}
-}
+}
\ No newline at end of file
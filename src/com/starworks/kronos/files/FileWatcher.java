@@ -0,0 +1,353 @@
+package com.starworks.kronos.files;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.starworks.kronos.logging.Logger;
+
+/**
+ * Watches directories for changes on behalf of every subsystem which reloads
+ * files while the application runs, using one {@link WatchService} and one
+ * daemon thread however many subscriptions there are.
+ * <p>
+ * Changes are debounced: the events of a file are collected until it has been
+ * quiet for the debounce interval, then delivered once, so an editor saving a
+ * file in several writes causes one reload rather than one per write and never
+ * a reload of a half written file. Listeners subscribe to a directory tree with
+ * a glob matched against paths relative to it, and are called on the watch
+ * thread; a listener which must act on another thread should hand the change
+ * over rather than do the work itself.
+ *
+ * @author Ethan Temprovich
+ */
+public enum FileWatcher {
+
+	INSTANCE;
+
+	private final Logger LOGGER = Logger.getLogger(FileWatcher.class);
+
+	private static final long DEFAULT_DEBOUNCE = 100;
+
+	private final Object m_lock;
+	private final List<Subscription> m_subscriptions;
+	private final Set<Path> m_directories;
+	private final Map<Path, Pending> m_pending;
+	private WatchService m_service;
+	private Thread m_thread;
+	private volatile long m_debounce;
+
+	private FileWatcher() {
+		this.m_lock = new Object();
+		this.m_subscriptions = new CopyOnWriteArrayList<Subscription>();
+		this.m_directories = ConcurrentHashMap.newKeySet();
+		this.m_pending = new LinkedHashMap<Path, Pending>();
+		this.m_debounce = DEFAULT_DEBOUNCE;
+	}
+
+	/**
+	 * Calls {@code listener} whenever a file below {@code root} whose relative
+	 * path matches {@code glob} is created, modified or deleted. Directories
+	 * created below {@code root} later are watched as well.
+	 */
+	public Subscription watch(Path root, String glob, Listener listener) throws IOException {
+		Path directory = root.toAbsolutePath().normalize();
+		if (!Files.isDirectory(directory)) {
+			throw new IOException("Cannot watch '" + root + "': not a directory");
+		}
+		return subscribe(new Subscription(root, directory, directory.getFileSystem().getPathMatcher("glob:" + glob), listener, true));
+	}
+
+	/**
+	 * Calls {@code listener} whenever {@code file} is created, modified or
+	 * deleted. Only the directory holding the file is watched, not the
+	 * directories below it.
+	 */
+	public Subscription watch(Path file, Listener listener) throws IOException {
+		Path parent = file.toAbsolutePath().normalize().getParent();
+		if (parent == null) {
+			throw new IOException("Cannot watch '" + file + "': it has no parent directory");
+		}
+		Path root = file.getParent() != null ? file.getParent() : parent;
+		return subscribe(new Subscription(root, parent, parent.getFileSystem().getPathMatcher("glob:" + escape(file.getFileName().toString())), listener, false));
+	}
+
+	private Subscription subscribe(Subscription subscription) throws IOException {
+		synchronized (m_lock) {
+			start();
+			register(subscription.m_directory, subscription.m_recursive);
+		}
+		m_subscriptions.add(subscription);
+		return subscription;
+	}
+
+	/**
+	 * Sets how long a file must go without changes before they are delivered.
+	 */
+	public void setDebounce(long millis) {
+		if (millis < 0) {
+			throw new IllegalArgumentException("Debounce cannot be negative: " + millis);
+		}
+		m_debounce = millis;
+	}
+
+	public long getDebounce() {
+		return m_debounce;
+	}
+
+	/**
+	 * Stops the watch thread and drops every subscription.
+	 */
+	public void shutdown() {
+		synchronized (m_lock) {
+			m_subscriptions.clear();
+			m_directories.clear();
+			if (m_service != null) {
+				try {
+					m_service.close();
+				} catch (IOException e) {
+					LOGGER.error("Error closing file watcher", e);
+				}
+				m_service = null;
+			}
+			if (m_thread != null) {
+				m_thread.interrupt();
+				m_thread = null;
+			}
+		}
+	}
+
+	private void start() throws IOException {
+		if (m_service != null) {
+			return;
+		}
+		m_service = FileSystems.getDefault().newWatchService();
+		WatchService service = m_service;
+		m_thread = new Thread(() -> run(service), "FileWatcher");
+		m_thread.setDaemon(true);
+		m_thread.start();
+	}
+
+	private void register(Path start, boolean recursive) throws IOException {
+		WatchService service = m_service;
+		if (!recursive) {
+			if (m_directories.add(start)) {
+				start.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			}
+			return;
+		}
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				if (m_directories.add(dir)) {
+					dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private void run(WatchService service) {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				long wait = nextDeadline() - System.nanoTime();
+				WatchKey key = m_pending.isEmpty() ? service.take() : service.poll(Math.max(0, wait), TimeUnit.NANOSECONDS);
+				while (key != null) {
+					collect(key);
+					key = service.poll();
+				}
+				deliver();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+		}
+	}
+
+	private void collect(WatchKey key) {
+		Path directory = (Path) key.watchable();
+		long now = System.nanoTime();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			WatchEvent.Kind<?> kind = event.kind();
+			if (kind == StandardWatchEventKinds.OVERFLOW) {
+				LOGGER.warn("File watcher overflowed in '{0}', some changes were missed", directory);
+				continue;
+			}
+			Path path = directory.resolve((Path) event.context());
+			if (kind == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+				if (coversTree(path)) {
+					try {
+						synchronized (m_lock) {
+							if (m_service != null) {
+								register(path, true);
+							}
+						}
+					} catch (IOException e) {
+						LOGGER.error("Error registering new directory for watching", e);
+					}
+				}
+				continue;
+			}
+			if (!isWatched(path)) {
+				continue;
+			}
+			Pending pending = m_pending.get(path);
+			if (pending == null) {
+				m_pending.put(path, new Pending(kind == StandardWatchEventKinds.ENTRY_CREATE, now));
+			} else {
+				pending.m_time = now;
+			}
+		}
+		if (!key.reset()) {
+			m_directories.remove(directory);
+		}
+	}
+
+	/**
+	 * Whether any subscription is interested in {@code path}; changes nobody
+	 * listens to are dropped before they are debounced.
+	 */
+	private boolean isWatched(Path path) {
+		for (Subscription subscription : m_subscriptions) {
+			if (subscription.matches(path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether a subscription watching a whole tree contains {@code directory}.
+	 */
+	private boolean coversTree(Path directory) {
+		for (Subscription subscription : m_subscriptions) {
+			if (subscription.m_recursive && directory.startsWith(subscription.m_directory)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private long nextDeadline() {
+		long debounce = TimeUnit.MILLISECONDS.toNanos(m_debounce);
+		long deadline = Long.MAX_VALUE;
+		for (Pending pending : m_pending.values()) {
+			deadline = Math.min(deadline, pending.m_time + debounce);
+		}
+		return deadline;
+	}
+
+	private void deliver() {
+		long debounce = TimeUnit.MILLISECONDS.toNanos(m_debounce);
+		long now = System.nanoTime();
+		Iterator<Map.Entry<Path, Pending>> iterator = m_pending.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Path, Pending> entry = iterator.next();
+			Pending pending = entry.getValue();
+			if (now - pending.m_time < debounce) {
+				continue;
+			}
+			iterator.remove();
+			Path path = entry.getKey();
+			Change change = !Files.exists(path) ? Change.DELETED : pending.m_created ? Change.CREATED : Change.MODIFIED;
+			for (Subscription subscription : m_subscriptions) {
+				if (subscription.matches(path)) {
+					try {
+						subscription.m_listener.onChange(subscription.m_root.resolve(subscription.m_directory.relativize(path)), change);
+					} catch (RuntimeException e) {
+						LOGGER.error("Error handling change of '{0}'", e, path);
+					}
+				}
+			}
+		}
+	}
+
+	private static String escape(String name) {
+		StringBuilder sb = new StringBuilder(name.length());
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if ("*?[]{}\\".indexOf(c) >= 0) {
+				sb.append('\\');
+			}
+			sb.append(c);
+		}
+		return sb.toString();
+	}
+
+	public static enum Change {
+		CREATED, MODIFIED, DELETED;
+	}
+
+	@FunctionalInterface
+	public static interface Listener {
+
+		/**
+		 * @param path the changed file, resolved against the root it was watched
+		 *             under
+		 */
+		public void onChange(Path path, Change change);
+	}
+
+	/**
+	 * A listener's registration, returned by {@code watch}.
+	 */
+	public static final class Subscription {
+
+		private final Path m_root;
+		private final Path m_directory;
+		private final PathMatcher m_matcher;
+		private final Listener m_listener;
+		private final boolean m_recursive;
+
+		private Subscription(Path root, Path directory, PathMatcher matcher, Listener listener, boolean recursive) {
+			this.m_root = root;
+			this.m_directory = directory;
+			this.m_matcher = matcher;
+			this.m_listener = listener;
+			this.m_recursive = recursive;
+		}
+
+		/**
+		 * Stops delivering changes to the listener. The directories stay watched
+		 * for other subscriptions.
+		 */
+		public void cancel() {
+			INSTANCE.m_subscriptions.remove(this);
+		}
+
+		public Path getRoot() {
+			return m_root;
+		}
+
+		private boolean matches(Path path) {
+			return path.startsWith(m_directory) && m_matcher.matches(m_directory.relativize(path));
+		}
+	}
+
+	private static final class Pending {
+
+		final boolean m_created;
+		long m_time;
+
+		Pending(boolean created, long time) {
+			this.m_created = created;
+			this.m_time = time;
+		}
+	}
+}
@@ -16,7 +16,7 @@ public final class KeyboardAction<T extends Enum<T> & ActionMap> extends Action<
 		if (!validateBinding(keyCode)) {
 			return null;
 		}
-		return event;
+		return event.clone();
 	}
 
 	@Override
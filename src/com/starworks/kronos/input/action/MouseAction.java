@@ -18,7 +18,7 @@ public final class MouseAction<T extends Enum<T> & ActionMap> extends Action<T>
 		if (!validateBinding(button)) {
 			return null;
 		}
-		return event;
+		return event.clone();
 	}
 
 	@Override
@@ -7,6 +7,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -25,6 +26,10 @@ public final class Job<T> implements Runnable {
 	private final Phaser m_dependencyPhaser;
 	private Runnable m_dependencyResolver;
 	private final RetryPolicy m_retryPolicy;
+	private final AtomicReference<JobFence> m_fence;
+	private volatile JobStatistics m_statistics;
+	private long m_submitTime;
+	private int m_retries;
 
 	public Job(String name, int priority, Callable<T> callable) {
 		this(name, priority, callable, RetryPolicy.basic());
@@ -40,6 +45,10 @@ public final class Job<T> implements Runnable {
 		this.m_dependencyPhaser = new Phaser(1);
 		this.m_dependencyResolver = () -> {};
 		this.m_retryPolicy = retryPolicy;
+		this.m_fence = new AtomicReference<JobFence>(null);
+		this.m_statistics = null;
+		this.m_submitTime = 0;
+		this.m_retries = 0;
 	}
 
 	public Job<T> addDependency(Job<?> job) {
@@ -61,8 +70,23 @@ public final class Job<T> implements Runnable {
 		if (m_latch.getCount() == 0) {
 			return;
 		}
+		JobStatistics statistics = m_statistics;
+		long startTime = System.nanoTime();
+		if (statistics != null) {
+			statistics.started(this, startTime - m_submitTime);
+		}
+		try {
+			execute();
+		} finally {
+			if (statistics != null) {
+				statistics.finished(this, System.nanoTime() - startTime, m_retries, m_future.isCompletedExceptionally());
+			}
+			signalFence();
+		}
+	}
 
-		int retries = 0;
+	private void execute() {
+		m_retries = 0;
 		long delay = m_retryPolicy.retryDelayUnit().toMillis(m_retryPolicy.retryDelay());
 		boolean retry;
 		do {
@@ -80,9 +104,9 @@ public final class Job<T> implements Runnable {
 				if (m_latch.getCount() == 0) {
 					return;
 				}
-				if (retries < m_retryPolicy.maxRetries() && m_retryPolicy.condition().test(t)) {
+				if (m_retries < m_retryPolicy.maxRetries() && m_retryPolicy.condition().test(t)) {
 					retry = true;
-					retries++;
+					m_retries++;
 					try {
 						TimeUnit.MILLISECONDS.sleep(delay);
 					} catch (InterruptedException e) {
@@ -90,7 +114,7 @@ public final class Job<T> implements Runnable {
 						Thread.currentThread().interrupt();
 					}
 					if (m_retryPolicy.isExponentialBackoff()) {
-						delay *= (1 << retries);
+						delay *= (1 << m_retries);
 					}
 				} else {
 					m_future.completeExceptionally(t);
@@ -147,8 +171,44 @@ public final class Job<T> implements Runnable {
 	}
 
 	public void cancel() {
-		m_future.cancel(true);
+		boolean cancelled = m_future.cancel(true);
 		m_latch.countDown();
+		JobStatistics statistics = m_statistics;
+		if (cancelled && statistics != null) {
+			statistics.cancelled(this);
+		}
+		signalFence();
+	}
+
+	void submitted(JobStatistics statistics) {
+		m_statistics = statistics;
+		m_submitTime = System.nanoTime();
+		statistics.submitted(this);
+	}
+
+	boolean fence(JobFence fence) {
+		if (isComplete() || !fence.attach()) {
+			return false;
+		}
+		if (!m_fence.compareAndSet(null, fence)) {
+			fence.signal();
+			return false;
+		}
+		if (isComplete()) {
+			signalFence();
+		}
+		return true;
+	}
+
+	private void signalFence() {
+		JobFence fence = m_fence.getAndSet(null);
+		if (fence != null) {
+			fence.signal();
+		}
+	}
+
+	CompletableFuture<T> future() {
+		return m_future;
 	}
 
 	public boolean isCancelled() {
@@ -0,0 +1,83 @@
+package com.starworks.kronos.jobs;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public final class JobFence {
+
+	private final long m_frame;
+	private final Phaser m_phaser;
+	private volatile boolean m_sealed;
+
+	JobFence(long frame) {
+		this.m_frame = frame;
+		this.m_phaser = new Phaser(1);
+		this.m_sealed = false;
+	}
+
+	synchronized boolean attach() {
+		if (m_sealed) {
+			return false;
+		}
+		m_phaser.register();
+		return true;
+	}
+
+	void signal() {
+		m_phaser.arriveAndDeregister();
+	}
+
+	public synchronized void seal() {
+		if (m_sealed) {
+			return;
+		}
+		m_sealed = true;
+		m_phaser.arriveAndDeregister();
+	}
+
+	public boolean await(long timeout, TimeUnit unit) {
+		seal();
+		if (m_phaser.isTerminated()) {
+			return true;
+		}
+		try {
+			m_phaser.awaitAdvanceInterruptibly(0, timeout, unit);
+			return true;
+		} catch (TimeoutException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	public boolean isSealed() {
+		return m_sealed;
+	}
+
+	public boolean isSignalled() {
+		return m_phaser.isTerminated();
+	}
+
+	public int getPendingCount() {
+		return m_sealed ? m_phaser.getUnarrivedParties() : m_phaser.getUnarrivedParties() - 1;
+	}
+
+	public long getFrame() {
+		return m_frame;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("JobFence[frame=");
+		builder.append(m_frame);
+		builder.append(", sealed=");
+		builder.append(m_sealed);
+		builder.append(", pending=");
+		builder.append(getPendingCount());
+		builder.append("]");
+		return builder.toString();
+	}
+}
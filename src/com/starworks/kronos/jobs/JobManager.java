@@ -1,9 +1,15 @@
 package com.starworks.kronos.jobs;
 
+import java.util.Map;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
@@ -11,6 +17,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import com.starworks.kronos.Configuration;
 import com.starworks.kronos.exception.Exceptions;
@@ -29,7 +38,12 @@ public class JobManager {
 	private final int m_shutdownTimeoutSeconds;
 	private final ExecutorService m_executor;
 	private final ScheduledExecutorService m_updateExecutor;
+	private final ForkJoinPool m_workerPool;
 	private final ReentrantLock m_lock;
+	private final ConcurrentNavigableMap<Long, JobFence> m_fences;
+	private final MainThreadQueue m_mainThreadQueue;
+	private final JobStatistics m_statistics;
+	private ScheduledExecutorService m_statisticsExecutor;
 
 	JobManager(int updatesPerSecond, int timeoutSeconds, int shutdownTimeoutSeconds) {
 		this.m_queue = new JobQueue();
@@ -46,7 +60,16 @@ public class JobManager {
 		};
 		this.m_executor = Executors.newCachedThreadPool(threadFactory);
 		this.m_updateExecutor = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		this.m_workerPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), pool -> {
+			ForkJoinWorkerThread workerThread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			workerThread.setName("JobWorker" + workerThread.getPoolIndex());
+			return workerThread;
+		}, null, false);
 		this.m_lock = new ReentrantLock();
+		this.m_fences = new ConcurrentSkipListMap<Long, JobFence>();
+		this.m_mainThreadQueue = new MainThreadQueue();
+		this.m_statistics = new JobStatistics();
+		this.m_statisticsExecutor = null;
 	}
 
 	public static JobManager create() {
@@ -66,9 +89,112 @@ public class JobManager {
 	}
 	
 	public void submit(final Job<?> job) {
+		job.submitted(m_statistics);
 		m_queue.offer(job);
 	}
 
+	public JobFence submit(final Job<?> job, final long frame) {
+		JobFence fence = m_fences.computeIfAbsent(frame, JobFence::new);
+		if (!job.fence(fence)) {
+			LOGGER.warn("Job '{0}' could not be fenced to frame {1}", job.getName(), frame);
+		}
+		job.submitted(m_statistics);
+		m_queue.offer(job);
+		return fence;
+	}
+
+	public boolean awaitFrame(final long frame, final long budget, final TimeUnit unit) {
+		long deadline = System.nanoTime() + unit.toNanos(budget);
+		boolean signalled = true;
+		for (Map.Entry<Long, JobFence> entry : m_fences.headMap(frame, true).entrySet()) {
+			JobFence fence = entry.getValue();
+			long remaining = Math.max(0, deadline - System.nanoTime());
+			if (fence.await(remaining, TimeUnit.NANOSECONDS)) {
+				m_fences.remove(entry.getKey(), fence);
+			} else {
+				signalled = false;
+			}
+		}
+		return signalled;
+	}
+
+	/**
+	 * Runs {@code action} with the job's result on the main thread. If the job
+	 * fails or is cancelled, the failure is logged on the main thread instead.
+	 */
+	public <T> void completeOnMainThread(final Job<T> job, final Consumer<? super T> action) {
+		completeOnMainThread(job, action, t -> LOGGER.error("Job completed exceptionally", t));
+	}
+
+	/**
+	 * Runs {@code action} with the job's result, or {@code failure} with the
+	 * cause if the job fails or is cancelled, on the main thread.
+	 */
+	public <T> void completeOnMainThread(final Job<T> job, final Consumer<? super T> action, final Consumer<? super Throwable> failure) {
+		job.future().whenComplete((result, t) -> {
+			if (t == null) {
+				m_mainThreadQueue.offer(() -> action.accept(result));
+			} else {
+				Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+				m_mainThreadQueue.offer(() -> failure.accept(cause));
+			}
+		});
+	}
+
+	public void runOnMainThread(final Runnable task) {
+		m_mainThreadQueue.offer(task);
+	}
+
+	public int drainMainThreadQueue(final long budget, final TimeUnit unit) {
+		return m_mainThreadQueue.drain(budget, unit);
+	}
+
+	public void parallelFor(final int start, final int end, final int grainSize, final IntConsumer body) {
+		parallelFor(start, end, grainSize, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				body.accept(i);
+			}
+		});
+	}
+
+	public void parallelFor(final int start, final int end, final int grainSize, final RangeBody body) {
+		if (end <= start) {
+			return;
+		}
+		int grain = grainSize(start, end, grainSize);
+		if (end - start <= grain) {
+			body.apply(start, end);
+			return;
+		}
+		invoke(new ParallelRange.For(start, end, grain, body));
+	}
+
+	public <T> T parallelReduce(final int start, final int end, final int grainSize, final T identity, final RangeReducer<T> reducer, final BinaryOperator<T> combiner) {
+		if (end <= start) {
+			return identity;
+		}
+		int grain = grainSize(start, end, grainSize);
+		if (end - start <= grain) {
+			return combiner.apply(identity, reducer.reduce(start, end));
+		}
+		return combiner.apply(identity, invoke(new ParallelRange.Reduce<T>(start, end, grain, reducer, combiner)));
+	}
+
+	private int grainSize(int start, int end, int grainSize) {
+		if (grainSize > 0) {
+			return grainSize;
+		}
+		// roughly eight batches per worker leaves room for stealing without flooding the queues
+		return Math.max(1, (end - start) / (m_workerPool.getParallelism() << 3));
+	}
+
+	private <T> T invoke(ForkJoinTask<T> task) {
+		if (ForkJoinTask.getPool() == m_workerPool) {
+			return task.invoke();
+		}
+		return m_workerPool.invoke(task);
+	}
+
 	public void start() {
 		LOGGER.info("Job manager started");
 		m_updateExecutor.scheduleAtFixedRate(() -> {
@@ -87,6 +213,7 @@ public class JobManager {
 						future.get(m_timeoutSeconds, TimeUnit.SECONDS);
 					} catch (TimeoutException e) {
 						future.cancel(true);
+						m_statistics.timedOut(job);
 						LOGGER.warn("Job runtime exceeded the allotted timeout duration.", e);
 					} catch (InterruptedException ignored) {
 					} catch (ExecutionException e) {
@@ -99,9 +226,46 @@ public class JobManager {
 		}, 0, 1000 / m_updatesPerSecond, TimeUnit.MILLISECONDS);
 	}
 
+	public JobStatistics.Snapshot getStatistics() {
+		return m_statistics.snapshot(m_queue.size());
+	}
+
+	public void resetStatistics() {
+		m_statistics.reset();
+	}
+
+	public synchronized void logStatistics(final long period, final TimeUnit unit) {
+		if (m_statisticsExecutor != null) {
+			m_statisticsExecutor.shutdownNow();
+			m_statisticsExecutor = null;
+		}
+		if (period <= 0) {
+			return;
+		}
+		m_statisticsExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "JobStatistics");
+			thread.setDaemon(true);
+			return thread;
+		});
+		m_statisticsExecutor.scheduleAtFixedRate(this::logStatistics, period, period, unit);
+	}
+
+	private void logStatistics() {
+		JobStatistics.Snapshot snapshot = getStatistics();
+		LOGGER.info("Job queue depth: {0}, main thread queue depth: {1}", snapshot.queueDepth(), m_mainThreadQueue.size());
+		for (var entry : snapshot.byPriority().entrySet()) {
+			JobStatistics.Entry stats = entry.getValue();
+			LOGGER.info("Priority {0}: submitted={1} completed={2} failed={3} retries={4} cancelled={5} timedOut={6} queued(p50={7}ms p99={8}ms) run(p50={9}ms p99={10}ms)",
+					entry.getKey(), stats.submitted(), stats.completed(), stats.failed(), stats.retries(), stats.cancelled(), stats.timedOut(),
+					stats.queued().p50Millis(), stats.queued().p99Millis(), stats.run().p50Millis(), stats.run().p99Millis());
+		}
+	}
+
 	public void shutdown() {
+		logStatistics(0, TimeUnit.SECONDS);
 		m_updateExecutor.shutdown();
 		m_executor.shutdown();
+		m_workerPool.shutdown();
 		try {
 			if (!m_updateExecutor.awaitTermination(m_shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
 				m_updateExecutor.shutdownNow();
@@ -109,6 +273,9 @@ public class JobManager {
 			if (!m_executor.awaitTermination(m_shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
 				m_executor.shutdownNow();
 			}
+			if (!m_workerPool.awaitTermination(m_shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+				m_workerPool.shutdownNow();
+			}
 		} catch (InterruptedException e) {
 			LOGGER.warn(Exceptions.getMessage("jobs.jobManager.shutdownTimeout"));
 		}
@@ -0,0 +1,208 @@
+package com.starworks.kronos.jobs;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for the jobs run by a {@link JobManager},
+ * kept per priority and per job name. Recording is wait-free; a consistent
+ * view is obtained through {@link #snapshot(int)}. At most {@value #MAX_NAMES}
+ * job names are tracked apart; jobs with names beyond those are counted
+ * together under {@value #OTHER_NAME}.
+ *
+ * @author Ethan Temprovich
+ */
+public final class JobStatistics {
+
+	public static final String OTHER_NAME = "<other>";
+
+	private static final int MAX_NAMES = 256;
+
+	private final Map<Integer, Counters> m_byPriority;
+	private final Map<String, Counters> m_byName;
+
+	JobStatistics() {
+		this.m_byPriority = new ConcurrentHashMap<Integer, Counters>();
+		this.m_byName = new ConcurrentHashMap<String, Counters>();
+	}
+
+	void submitted(Job<?> job) {
+		priority(job).m_submitted.increment();
+		name(job).m_submitted.increment();
+	}
+
+	void started(Job<?> job, long waitNanos) {
+		Counters priority = priority(job);
+		Counters name = name(job);
+		priority.m_started.increment();
+		name.m_started.increment();
+		priority.m_queued.record(waitNanos);
+		name.m_queued.record(waitNanos);
+	}
+
+	void finished(Job<?> job, long runNanos, int retries, boolean failed) {
+		Counters priority = priority(job);
+		Counters name = name(job);
+		if (failed) {
+			priority.m_failed.increment();
+			name.m_failed.increment();
+		} else {
+			priority.m_completed.increment();
+			name.m_completed.increment();
+		}
+		if (retries > 0) {
+			priority.m_retries.add(retries);
+			name.m_retries.add(retries);
+		}
+		priority.m_run.record(runNanos);
+		name.m_run.record(runNanos);
+	}
+
+	void cancelled(Job<?> job) {
+		priority(job).m_cancelled.increment();
+		name(job).m_cancelled.increment();
+	}
+
+	void timedOut(Job<?> job) {
+		priority(job).m_timedOut.increment();
+		name(job).m_timedOut.increment();
+	}
+
+	public Snapshot snapshot(int queueDepth) {
+		Map<Integer, Entry> byPriority = new TreeMap<Integer, Entry>(Collections.reverseOrder());
+		for (Map.Entry<Integer, Counters> entry : m_byPriority.entrySet()) {
+			byPriority.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		Map<String, Entry> byName = new TreeMap<String, Entry>();
+		for (Map.Entry<String, Counters> entry : m_byName.entrySet()) {
+			byName.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return new Snapshot(System.currentTimeMillis(), queueDepth, Collections.unmodifiableMap(byPriority), Collections.unmodifiableMap(byName));
+	}
+
+	public void reset() {
+		m_byPriority.clear();
+		m_byName.clear();
+	}
+
+	private Counters priority(Job<?> job) {
+		return m_byPriority.computeIfAbsent(job.getPriority(), p -> new Counters());
+	}
+
+	private Counters name(Job<?> job) {
+		Counters counters = m_byName.get(job.getName());
+		if (counters != null) {
+			return counters;
+		}
+		String name = m_byName.size() < MAX_NAMES ? job.getName() : OTHER_NAME;
+		return m_byName.computeIfAbsent(name, n -> new Counters());
+	}
+
+	public final record Snapshot(long timestamp, int queueDepth, Map<Integer, Entry> byPriority, Map<String, Entry> byName) {
+	}
+
+	public final record Entry(long submitted, long started, long completed, long failed, long retries, long cancelled, long timedOut, Latency queued, Latency run) {
+
+		/**
+		 * @return roughly how many jobs are waiting to start; the counters are
+		 *         not read together and a job may be cancelled after it
+		 *         started, so this is an approximation and never negative
+		 */
+		public long pending() {
+			return Math.max(0, submitted - started - cancelled);
+		}
+	}
+
+	public final record Latency(long count, double meanMillis, double p50Millis, double p99Millis, double maxMillis) {
+	}
+
+	private static final class Counters {
+
+		private final LongAdder m_submitted;
+		private final LongAdder m_started;
+		private final LongAdder m_completed;
+		private final LongAdder m_failed;
+		private final LongAdder m_retries;
+		private final LongAdder m_cancelled;
+		private final LongAdder m_timedOut;
+		private final Histogram m_queued;
+		private final Histogram m_run;
+
+		private Counters() {
+			this.m_submitted = new LongAdder();
+			this.m_started = new LongAdder();
+			this.m_completed = new LongAdder();
+			this.m_failed = new LongAdder();
+			this.m_retries = new LongAdder();
+			this.m_cancelled = new LongAdder();
+			this.m_timedOut = new LongAdder();
+			this.m_queued = new Histogram();
+			this.m_run = new Histogram();
+		}
+
+		private Entry snapshot() {
+			return new Entry(m_submitted.sum(), m_started.sum(), m_completed.sum(), m_failed.sum(), m_retries.sum(), m_cancelled.sum(), m_timedOut.sum(), m_queued.snapshot(), m_run.snapshot());
+		}
+	}
+
+	/**
+	 * Power of two buckets over nanoseconds; bucket {@code i} holds samples in
+	 * {@code [2^i, 2^(i+1))}, so percentiles are accurate to within a factor of
+	 * two, which is plenty to tell a backed up queue from a healthy one.
+	 */
+	private static final class Histogram {
+
+		private static final int BUCKETS = 64;
+		private static final double NANOS_PER_MILLI = 1e6;
+
+		private final AtomicLongArray m_buckets;
+		private final LongAdder m_total;
+		private final LongAccumulator m_max;
+
+		private Histogram() {
+			this.m_buckets = new AtomicLongArray(BUCKETS);
+			this.m_total = new LongAdder();
+			this.m_max = new LongAccumulator(Math::max, 0);
+		}
+
+		private void record(long nanos) {
+			if (nanos < 0) {
+				nanos = 0;
+			}
+			m_buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(nanos | 1));
+			m_total.add(nanos);
+			m_max.accumulate(nanos);
+		}
+
+		private Latency snapshot() {
+			long[] buckets = new long[BUCKETS];
+			long count = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				buckets[i] = m_buckets.get(i);
+				count += buckets[i];
+			}
+			if (count == 0) {
+				return new Latency(0, 0, 0, 0, 0);
+			}
+			double mean = m_total.sum() / (double) count / NANOS_PER_MILLI;
+			return new Latency(count, mean, percentile(buckets, count, 0.50), percentile(buckets, count, 0.99), m_max.get() / NANOS_PER_MILLI);
+		}
+
+		private static double percentile(long[] buckets, long count, double percentile) {
+			long rank = (long) Math.ceil(count * percentile);
+			long seen = 0;
+			for (int i = 0; i < BUCKETS; i++) {
+				seen += buckets[i];
+				if (seen >= rank) {
+					return (1L << i) / NANOS_PER_MILLI;
+				}
+			}
+			return (1L << (BUCKETS - 1)) / NANOS_PER_MILLI;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package com.starworks.kronos.jobs;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.starworks.kronos.logging.Logger;
+
+/**
+ * An unbounded, lock-free, multiple producer single consumer queue of tasks
+ * which must be run on the main thread. Any thread may {@link #offer(Runnable)
+ * offer} a task; only the main loop may {@link #drain(long, TimeUnit) drain}
+ * the queue, which it does once per frame.
+ *
+ * @author Ethan Temprovich
+ */
+public final class MainThreadQueue {
+	private final Logger LOGGER = Logger.getLogger(MainThreadQueue.class);
+
+	private final AtomicReference<Node> m_tail;
+	private final AtomicInteger m_size;
+	private Node m_head;
+
+	public MainThreadQueue() {
+		Node stub = new Node(null);
+		this.m_tail = new AtomicReference<Node>(stub);
+		this.m_size = new AtomicInteger(0);
+		this.m_head = stub;
+	}
+
+	public void offer(Runnable task) {
+		if (task == null) {
+			throw new NullPointerException("Cannot offer a null task");
+		}
+		Node node = new Node(task);
+		Node previous = m_tail.getAndSet(node);
+		m_size.incrementAndGet();
+		previous.m_next = node;
+	}
+
+	/**
+	 * Runs queued tasks until either every task that was present when the call
+	 * began has run, or the budget has been spent. Tasks offered while draining
+	 * are deferred to the next drain, so a task that re-enqueues itself cannot
+	 * stall the frame.
+	 *
+	 * @param budget the maximum time to spend draining
+	 * @param unit   the unit of {@code budget}
+	 * @return the number of tasks run
+	 */
+	public int drain(long budget, TimeUnit unit) {
+		Node last = m_tail.get();
+		if (last == m_head) {
+			return 0;
+		}
+		long deadline = System.nanoTime() + unit.toNanos(budget);
+		int count = 0;
+		for (;;) {
+			Node next = m_head.m_next;
+			if (next == null) {
+				break;
+			}
+			m_head = next;
+			Runnable task = next.m_task;
+			next.m_task = null;
+			m_size.decrementAndGet();
+			try {
+				task.run();
+			} catch (Throwable t) {
+				LOGGER.error("An unhandled exception was thrown by a main thread task.", t);
+			}
+			count++;
+			if (next == last || System.nanoTime() - deadline >= 0) {
+				break;
+			}
+		}
+		return count;
+	}
+
+	public int size() {
+		return m_size.get();
+	}
+
+	public boolean isEmpty() {
+		return m_size.get() == 0;
+	}
+
+	private static final class Node {
+
+		private Runnable m_task;
+		private volatile Node m_next;
+
+		private Node(Runnable task) {
+			this.m_task = task;
+			this.m_next = null;
+		}
+	}
+}
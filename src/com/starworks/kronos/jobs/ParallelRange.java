@@ -0,0 +1,99 @@
+package com.starworks.kronos.jobs;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Fork/join tasks backing {@link JobManager#parallelFor(int, int, int, RangeBody)}
+ * and {@link JobManager#parallelReduce(int, int, int, Object, RangeReducer, BinaryOperator)}.
+ * A range is split in halves only while it is larger than the grain size and
+ * the worker's local queue is shallow, so idle workers steal large batches and
+ * busy workers run the remainder inline rather than paying for more tasks.
+ *
+ * @author Ethan Temprovich
+ */
+final class ParallelRange {
+
+	private static final int SURPLUS_THRESHOLD = 2;
+
+	private ParallelRange() {
+	}
+
+	private static boolean shouldSplit(int from, int to, int grainSize) {
+		return to - from > grainSize && RecursiveAction.getSurplusQueuedTaskCount() <= SURPLUS_THRESHOLD;
+	}
+
+	static final class For extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int m_from;
+		private final int m_to;
+		private final int m_grainSize;
+		private final RangeBody m_body;
+		private For m_next;
+
+		For(int from, int to, int grainSize, RangeBody body) {
+			this.m_from = from;
+			this.m_to = to;
+			this.m_grainSize = grainSize;
+			this.m_body = body;
+			this.m_next = null;
+		}
+
+		@Override
+		protected void compute() {
+			int from = m_from;
+			int to = m_to;
+			For right = null;
+			while (shouldSplit(from, to, m_grainSize)) {
+				int mid = (from + to) >>> 1;
+				For fork = new For(mid, to, m_grainSize, m_body);
+				fork.m_next = right;
+				right = fork;
+				fork.fork();
+				to = mid;
+			}
+			m_body.apply(from, to);
+			while (right != null) {
+				if (right.tryUnfork()) {
+					right.compute();
+				} else {
+					right.join();
+				}
+				right = right.m_next;
+			}
+		}
+	}
+
+	static final class Reduce<T> extends RecursiveTask<T> {
+		private static final long serialVersionUID = 1L;
+
+		private final int m_from;
+		private final int m_to;
+		private final int m_grainSize;
+		private final RangeReducer<T> m_reducer;
+		private final BinaryOperator<T> m_combiner;
+
+		Reduce(int from, int to, int grainSize, RangeReducer<T> reducer, BinaryOperator<T> combiner) {
+			this.m_from = from;
+			this.m_to = to;
+			this.m_grainSize = grainSize;
+			this.m_reducer = reducer;
+			this.m_combiner = combiner;
+		}
+
+		@Override
+		protected T compute() {
+			if (!shouldSplit(m_from, m_to, m_grainSize)) {
+				return m_reducer.reduce(m_from, m_to);
+			}
+			int mid = (m_from + m_to) >>> 1;
+			Reduce<T> right = new Reduce<T>(mid, m_to, m_grainSize, m_reducer, m_combiner);
+			right.fork();
+			T left = new Reduce<T>(m_from, mid, m_grainSize, m_reducer, m_combiner).compute();
+			T rightResult = right.tryUnfork() ? right.compute() : right.join();
+			return m_combiner.apply(left, rightResult);
+		}
+	}
+}
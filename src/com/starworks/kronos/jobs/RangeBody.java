@@ -0,0 +1,7 @@
+package com.starworks.kronos.jobs;
+
+@FunctionalInterface
+public interface RangeBody {
+
+	void apply(int from, int to);
+}
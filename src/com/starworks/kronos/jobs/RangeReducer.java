@@ -0,0 +1,7 @@
+package com.starworks.kronos.jobs;
+
+@FunctionalInterface
+public interface RangeReducer<T> {
+
+	T reduce(int from, int to);
+}
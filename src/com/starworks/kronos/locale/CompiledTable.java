@@ -0,0 +1,131 @@
+package com.starworks.kronos.locale;
+
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable string table: keys and values in two parallel arrays laid out
+ * as an open addressed hash table at most half full, so a lookup is a few
+ * array reads with the key's cached hash code and never allocates. Tables are
+ * compiled once when they are loaded and replaced, never modified, when their
+ * file changes.
+ *
+ * @author Ethan Temprovich
+ */
+final class CompiledTable extends AbstractMap<String, String> {
+
+	private final String m_name;
+	private final Path m_path;
+	private final String[] m_keys;
+	private final String[] m_values;
+	private final int m_mask;
+	private final int m_size;
+	private Set<Map.Entry<String, String>> m_entrySet;
+
+	CompiledTable(String name, Path path, Map<String, String> strings) {
+		int capacity = Integer.highestOneBit(Math.max(1, strings.size()) * 2 - 1) << 1;
+		this.m_name = name;
+		this.m_path = path;
+		this.m_keys = new String[capacity];
+		this.m_values = new String[capacity];
+		this.m_mask = capacity - 1;
+		this.m_size = strings.size();
+		for (Map.Entry<String, String> entry : strings.entrySet()) {
+			int index = spread(entry.getKey().hashCode()) & m_mask;
+			while (m_keys[index] != null) {
+				index = (index + 1) & m_mask;
+			}
+			m_keys[index] = entry.getKey().intern();
+			m_values[index] = entry.getValue();
+		}
+	}
+
+	@Override
+	public String get(Object key) {
+		if (!(key instanceof String string)) {
+			return null;
+		}
+		int index = spread(string.hashCode()) & m_mask;
+		String candidate;
+		while ((candidate = m_keys[index]) != null) {
+			if (candidate == string || candidate.equals(string)) {
+				return m_values[index];
+			}
+			index = (index + 1) & m_mask;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public int size() {
+		return m_size;
+	}
+
+	@Override
+	public Set<Map.Entry<String, String>> entrySet() {
+		if (m_entrySet == null) {
+			m_entrySet = new EntrySet();
+		}
+		return m_entrySet;
+	}
+
+	String getName() {
+		return m_name;
+	}
+
+	Path getPath() {
+		return m_path;
+	}
+
+	private static int spread(int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<String, String>> {
+
+		@Override
+		public Iterator<Map.Entry<String, String>> iterator() {
+			return new Iterator<Map.Entry<String, String>>() {
+
+				private int m_index = advance(0);
+
+				@Override
+				public boolean hasNext() {
+					return m_index < m_keys.length;
+				}
+
+				@Override
+				public Map.Entry<String, String> next() {
+					if (!hasNext()) {
+						throw new NoSuchElementException();
+					}
+					Map.Entry<String, String> entry = Map.entry(m_keys[m_index], m_values[m_index]);
+					m_index = advance(m_index + 1);
+					return entry;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return m_size;
+		}
+
+		private int advance(int index) {
+			while (index < m_keys.length && m_keys[index] == null) {
+				index++;
+			}
+			return index;
+		}
+	}
+}
@@ -5,48 +5,52 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.file.FileSystems;
-import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardWatchEventKinds;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import com.starworks.kronos.exception.KronosRuntimeException;
+import com.starworks.kronos.files.FileWatcher;
 import com.starworks.kronos.logging.Logger;
 
+/*
+ * The tables of the current locale are compiled into immutable CompiledTables and published together
+ * as one snapshot, so lookups never lock and never allocate. Every change, whether a locale switch, a
+ * reloaded file or an edit, builds a new snapshot and swaps it in; a locale switch builds it on another
+ * thread, so the frame keeps using the previous locale until the new one is ready.
+ *
+ * Keys can be resolved to integer handles ahead of time with resolve(table, key). A handle indexes
+ * straight into the snapshot's array of values and stays valid across locale switches and reloads.
+ */
 public enum StringTable {
 	INSTANCE;
 
 	private static final String EMPTY_STRING = "";
 	private static final String PROPERTIES_EXT = ".properties";
-	
+
 	private final Logger LOGGER = Logger.getLogger(StringTable.class);
-	private final ConcurrentMap<String, ConcurrentMap<String, String>> m_stringTables;
-	private final ConcurrentMap<String, Path> m_tablePaths;
-	private final WatchService m_watcher;
-	private final Thread m_watchThread;
+	private final Object m_lock;
+	private final ConcurrentMap<String, ConcurrentMap<String, Integer>> m_handles;
+	private final AtomicInteger m_handleCount;
+	private final FileWatcher.Subscription m_subscription;
 	private final Path m_dirPath;
-	private final StampedLock m_lock;
-	private Locale m_currentLocale;
-	private volatile boolean m_isRunning;
+	private volatile Tables m_tables;
+	private long m_generation;
 
 	private StringTable() {
 		this.m_dirPath = Paths.get("data/locale/");
-		this.m_currentLocale = Locale.getDefault();
 
 		if (!Files.exists(m_dirPath)) {
 			try {
@@ -56,199 +60,258 @@ public enum StringTable {
 			}
 		}
 
-		this.m_stringTables = new ConcurrentHashMap<String, ConcurrentMap<String, String>>();
-		this.m_tablePaths = new ConcurrentHashMap<String, Path>();
-		this.m_isRunning = true;
-		this.m_lock = new StampedLock();
+		this.m_lock = new Object();
+		this.m_handles = new ConcurrentHashMap<String, ConcurrentMap<String, Integer>>();
+		this.m_handleCount = new AtomicInteger(0);
+		this.m_generation = 0;
 
 		try {
-			loadTables(m_dirPath);
-			this.m_watcher = FileSystems.getDefault().newWatchService();
-			registerDirectories(m_dirPath);
-			this.m_watchThread = new Thread(this::startWatching);
-			this.m_watchThread.start();
+			Locale locale = Locale.getDefault();
+			this.m_tables = compile(locale, loadTables(locale));
+			this.m_subscription = FileWatcher.INSTANCE.watch(m_dirPath, "**" + PROPERTIES_EXT, this::onTableChanged);
 		} catch (IOException e) {
 			e.printStackTrace();
 			throw new KronosRuntimeException(e);
 		}
 	}
 
-	private void registerDirectories(final Path start) throws IOException {
-		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
-			@Override
-			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-				dir.register(m_watcher, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
-				return FileVisitResult.CONTINUE;
-			}
-		});
-	}
-
-	private void startWatching() {
-		while (m_isRunning) {
-			WatchKey key;
-			try {
-				key = m_watcher.take();
-			} catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
+	private void onTableChanged(Path path, FileWatcher.Change change) {
+		synchronized (m_lock) {
+			Tables tables = m_tables;
+			String suffix = getSuffix(tables.locale());
+			if (!path.toString().endsWith(suffix)) {
 				return;
 			}
-
-			for (var event : key.pollEvents()) {
-				WatchEvent.Kind<?> kind = event.kind();
-				Path eventPath = ((Path) key.watchable()).resolve((Path) event.context());
-
-				if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
-					if (eventPath.toString().endsWith(getSuffix())) {
-		                String tableName = eventPath.getFileName().toString().replace(getSuffix(), EMPTY_STRING);
-		                m_stringTables.remove(tableName);
-		                m_tablePaths.remove(tableName);
-		                loadTablesFromPath(eventPath);
-		            }
-				} else if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-					if (Files.isDirectory(eventPath)) {
-						try {
-							registerDirectories(eventPath);
-						} catch (IOException e) {
-							LOGGER.error("Error registering new directory for watching", e);
-						}
-					}
+			String tableName = path.getFileName().toString().replace(suffix, EMPTY_STRING);
+			Map<String, CompiledTable> updated = new HashMap<String, CompiledTable>(tables.tables());
+			if (change == FileWatcher.Change.DELETED) {
+				updated.remove(tableName);
+			} else {
+				CompiledTable table = loadTable(path, tableName);
+				if (table == null) {
+					return;
 				}
+				updated.put(tableName, table);
 			}
-
-			boolean valid = key.reset();
-			if (!valid) {
-				break;
-			}
+			m_tables = compile(tables.locale(), updated);
 		}
 	}
 
 	public void stopWatching() {
-		m_isRunning = false;
-		m_watchThread.interrupt();
-		try {
-			m_watcher.close();
-		} catch (IOException e) {
-			LOGGER.error("Error closing file watcher", e);
-		}
+		m_subscription.cancel();
 	}
 
-	public void addString(String table, String key, String value) {
-		var stringTable = m_stringTables.computeIfAbsent(table, k -> new ConcurrentHashMap<String, String>());
-		stringTable.put(key, value);
-		savePropertiesToFile(table, stringTable);
+	/**
+	 * Resolves a key to a handle for {@link #getString(int)}. Handles stay valid
+	 * across locale changes and reloads, so a key only needs resolving once.
+	 */
+	public int resolve(String table, String key) {
+		return m_handles.computeIfAbsent(table, k -> new ConcurrentHashMap<String, Integer>()).computeIfAbsent(key, k -> m_handleCount.getAndIncrement());
+	}
+
+	/**
+	 * @return the string of a handle from {@link #resolve(String, String)} in
+	 *         the current locale, or an empty string if it has none
+	 */
+	public String getString(int handle) {
+		String[] values = m_tables.values();
+		if (handle < 0 || handle >= values.length) {
+			return EMPTY_STRING;
+		}
+		String value = values[handle];
+		return value == null ? EMPTY_STRING : value;
 	}
 
 	public String getString(String table, String key) {
-	    var stringTable = m_stringTables.getOrDefault(table, null);
-	    if (stringTable == null) return EMPTY_STRING;
-	    return stringTable.getOrDefault(key, EMPTY_STRING);
+		CompiledTable stringTable = m_tables.tables().get(table);
+		if (stringTable == null) {
+			return EMPTY_STRING;
+		}
+		String value = stringTable.get(key);
+		return value == null ? EMPTY_STRING : value;
+	}
+
+	public void addString(String table, String key, String value) {
+		synchronized (m_lock) {
+			Tables tables = m_tables;
+			CompiledTable stringTable = tables.tables().get(table);
+			Map<String, String> strings = stringTable == null ? new HashMap<String, String>() : new HashMap<String, String>(stringTable);
+			strings.put(key, value);
+			Path path = stringTable == null ? buildTableFilePath(table, tables.locale()) : stringTable.getPath();
+			replace(tables, new CompiledTable(table, path, strings));
+			savePropertiesToFile(path, strings);
+		}
 	}
 
 	public void removeString(String table, String key) {
-		var stringTable = m_stringTables.get(table);
-		if (stringTable != null) {
-			stringTable.remove(key);
+		synchronized (m_lock) {
+			Tables tables = m_tables;
+			CompiledTable stringTable = tables.tables().get(table);
+			if (stringTable != null && stringTable.containsKey(key)) {
+				Map<String, String> strings = new HashMap<String, String>(stringTable);
+				strings.remove(key);
+				replace(tables, new CompiledTable(table, stringTable.getPath(), strings));
+			}
 		}
 	}
 
 	public void modifyString(String table, String key, String newValue) {
-		var stringTable = m_stringTables.get(table);
-		if (stringTable == null) {
-			return;
+		synchronized (m_lock) {
+			Tables tables = m_tables;
+			CompiledTable stringTable = tables.tables().get(table);
+			if (stringTable == null) {
+				return;
+			}
+			Map<String, String> strings = new HashMap<String, String>(stringTable);
+			strings.put(key, newValue);
+			replace(tables, new CompiledTable(table, stringTable.getPath(), strings));
+			savePropertiesToFile(stringTable.getPath(), strings);
 		}
-		stringTable.put(key, newValue);
-		savePropertiesToFile(table, stringTable);
 	}
 
-	public void changeLocale(Locale newLocale) {
-		long stamp = m_lock.writeLock();
-		try {
-			m_stringTables.clear();
-			this.m_currentLocale = newLocale;
+	/**
+	 * Loads and compiles the tables of {@code newLocale} on another thread, then
+	 * switches to them at once. Lookups use the previous locale until the
+	 * returned future completes; if the locale is changed again before then,
+	 * only the latest change is applied.
+	 */
+	public CompletableFuture<Void> changeLocale(Locale newLocale) {
+		long generation;
+		synchronized (m_lock) {
+			generation = ++m_generation;
+		}
+		return CompletableFuture.supplyAsync(() -> {
 			try {
-				loadTables(m_dirPath);
+				return loadTables(newLocale);
 			} catch (IOException e) {
 				LOGGER.error("Error while changing locale", e);
+				throw new KronosRuntimeException(e);
+			}
+		}).thenAccept(tables -> {
+			Tables compiled = compile(newLocale, tables);
+			synchronized (m_lock) {
+				if (generation == m_generation) {
+					m_tables = compiled;
+				}
+			}
+		});
+	}
+
+	public Locale getLocale() {
+		return m_tables.locale();
+	}
+
+	private void replace(Tables tables, CompiledTable table) {
+		Map<String, CompiledTable> updated = new HashMap<String, CompiledTable>(tables.tables());
+		updated.put(table.getName(), table);
+		m_tables = compile(tables.locale(), updated);
+	}
+
+	/**
+	 * Builds a snapshot of {@code tables}, resolving a handle for every key.
+	 */
+	private Tables compile(Locale locale, Map<String, CompiledTable> tables) {
+		for (CompiledTable table : tables.values()) {
+			for (String key : table.keySet()) {
+				resolve(table.getName(), key);
+			}
+		}
+		String[] values = new String[m_handleCount.get()];
+		for (CompiledTable table : tables.values()) {
+			Map<String, Integer> handles = m_handles.get(table.getName());
+			for (Map.Entry<String, String> entry : table.entrySet()) {
+				values[handles.get(entry.getKey())] = entry.getValue();
 			}
-		} finally {
-			m_lock.unlockWrite(stamp);
 		}
+		return new Tables(locale, Map.copyOf(tables), values);
 	}
 
-	private void savePropertiesToFile(String table, ConcurrentMap<String, String> stringTable) {
+	private void savePropertiesToFile(Path filePath, Map<String, String> stringTable) {
 	    Properties prop = new Properties();
 
 	    for (var entry : stringTable.entrySet()) {
 	        prop.setProperty(entry.getKey(), entry.getValue());
 	    }
 
-	    Path filePath = m_tablePaths.getOrDefault(table, buildTableFilePath(table));
 	    try (OutputStream output = new FileOutputStream(filePath.toFile())) {
 	        prop.store(output, null);
 	    } catch (IOException ex) {
 	        LOGGER.error("Error saving properties to file", ex);
 	    }
 	}
-	
-	private void loadTables(Path dir) throws IOException {
-		Files.walk(dir).filter(Files::isRegularFile)
-					   .filter(p -> p.toString().endsWith(getSuffix()))
-					   .forEach(this::loadTablesFromPath);
+
+	private Map<String, CompiledTable> loadTables(Locale locale) throws IOException {
+		String suffix = getSuffix(locale);
+		List<Path> paths;
+		try (Stream<Path> stream = Files.walk(m_dirPath)) {
+			paths = stream.filter(Files::isRegularFile).filter(p -> p.toString().endsWith(suffix)).toList();
+		}
+		Map<String, CompiledTable> tables = new HashMap<String, CompiledTable>();
+		for (Path path : paths) {
+			String tableName = path.getFileName().toString().replace(suffix, EMPTY_STRING);
+			CompiledTable table = loadTable(path, tableName);
+			if (table != null) {
+				tables.put(tableName, table);
+			}
+		}
+		return tables;
 	}
 
-	private void loadTablesFromPath(Path path) {
+	private CompiledTable loadTable(Path path, String tableName) {
 		Path normalizedPath = path.normalize();
 	    if (!normalizedPath.startsWith(m_dirPath)) {
 	        LOGGER.warn("Invalid file access attempt: " + normalizedPath);
-	        return;
+	        return null;
 	    }
 		try (InputStream input = new FileInputStream(path.toFile())) {
 			Properties prop = new Properties();
 			prop.load(input);
 
-			ConcurrentMap<String, String> table = new ConcurrentHashMap<String, String>();
+			Map<String, String> table = new HashMap<String, String>();
 			for (var key : prop.stringPropertyNames()) {
 				table.put(key, prop.getProperty(key));
 			}
-
-			String tableName = path.getFileName().toString().replace(getSuffix(), EMPTY_STRING);
-		    m_stringTables.put(tableName, table);
-		    m_tablePaths.put(tableName, path);
+			return new CompiledTable(tableName, path, table);
 		} catch (IOException e) {
 			e.printStackTrace();
+			return null;
 		}
 	}
 
-	private Path buildTableFilePath(String table) {
-	    String fileName = table + getSuffix();
+	private Path buildTableFilePath(String table, Locale locale) {
+	    String fileName = table + getSuffix(locale);
 	    return m_dirPath.resolve(fileName);
 	}
-	
+
 	public void shutdown() {
 		stopWatching();
 	}
 
-	private String getSuffix() {
+	private static String getSuffix(Locale locale) {
 		StringBuilder sb = new StringBuilder();
 		sb.append('_');
-		sb.append(m_currentLocale.toString());
+		sb.append(locale.toString());
 		sb.append(PROPERTIES_EXT);
 		return sb.toString();
 	}
 
 	public Map<String, String> getTable(String name) {
-		return Collections.unmodifiableMap(m_stringTables.get(name));
+		CompiledTable table = m_tables.tables().get(name);
+		return table == null ? Collections.emptyMap() : table;
 	}
 
 	public Set<String> getTables() {
-		return Collections.unmodifiableSet(m_stringTables.keySet());
+		return m_tables.tables().keySet();
 	}
 
 	public Set<String> getKeys(String table) {
-		ConcurrentMap<String, String> stringTable = m_stringTables.get(table);
+		CompiledTable stringTable = m_tables.tables().get(table);
 		if (stringTable != null) {
 			return Collections.unmodifiableSet(stringTable.keySet());
 		}
 		return Collections.emptySet();
 	}
+
+	private static final record Tables(Locale locale, Map<String, CompiledTable> tables, String[] values) {
+	}
 }
@@ -1,40 +1,57 @@
 package com.starworks.kronos.logging;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.ConcurrentModificationException;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Pattern;
+import java.util.function.ObjLongConsumer;
 
 import com.starworks.kronos.logging.appender.Appender;
+import com.starworks.kronos.logging.appender.EventAppender;
 import com.starworks.kronos.toolkit.Ansi;
 import com.starworks.kronos.toolkit.Ansi.AnsiTrait;
 
-public abstract class AbstractLogger implements Logger, Runnable {
+public abstract class AbstractLogger implements Logger {
 
-	public static final int BUFFER_SIZE = 1 << 10;
+	public static final int BUFFER_SIZE = LogRingBuffer.CAPACITY;
 
-	protected static final Pattern s_parameterizedMessagePattern = Pattern.compile("\\{(\\d+)\\}");
+	private static final long SHUTDOWN_TIMEOUT_SECONDS = 1;
+	private static final int NO_LINE = -1;
+	private static final String NO_METHOD = "";
+
+	private static final int FORMAT_BUFFER_CAPACITY = 1 << 9;
+	private static final int MAX_FORMAT_BUFFER_CAPACITY = 1 << 16;
+	private static final String NEW_LINE = System.lineSeparator();
+
+	private static final String SUPPRESSED_TEMPLATE = "Suppressed {0} messages like \"{1}\" which exceeded the rate limit";
+	private static final String SUPPRESSED_OVERFLOW_TEMPLATE = "Suppressed {0} messages which exceeded the rate limit";
+	private static final String REPEATED_TEMPLATE = "Last message repeated {0} more times";
+	private static final long REPEAT_REPORT_MILLIS = 1000;
+	private static final Level RATE_LIMITED = Level.ALL.exclude(Level.ERROR, Level.FATAL);
+
+	private static final StackWalker s_stackWalker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+	/** Only ever touched by the logging thread, so it is shared by every logger. */
+	private static StringBuilder s_formatBuffer = new StringBuilder(FORMAT_BUFFER_CAPACITY);
 
 	protected final String m_name;
 	protected final Class<?> m_type;
 	protected Level m_level;
 	protected Layout m_layout;
 	protected final List<Appender> m_appenders;
-	private final Semaphore m_semaphore;
-	protected final ExecutorService m_executor;
-	protected boolean m_enabled;
-	protected final BlockingQueue<Logger.Context> m_queue;
+	protected volatile boolean m_enabled;
 	private boolean m_ansiFormatting;
 	private volatile boolean m_shutdown;
+	private volatile LogRateLimiter m_rateLimiter;
+	private final ObjLongConsumer<String> m_suppressionReporter;
+
+	/** The last event written and how often it has since repeated; only touched by the logging thread. */
+	private final LogEvent m_last;
+	private int m_repeats;
 
 	AbstractLogger(String name, Class<?> type, Level level, Layout layout, List<Appender> appenders, boolean ansiFormatting) {
 		this.m_name = name;
@@ -42,13 +59,13 @@ public abstract class AbstractLogger implements Logger, Runnable {
 		this.m_level = level;
 		this.m_layout = layout;
 		this.m_appenders = new CopyOnWriteArrayList<Appender>(appenders);
-		this.m_semaphore = new Semaphore(1);
-		this.m_executor = Executors.newSingleThreadExecutor();
 		this.m_enabled = true;
-		this.m_queue = new ArrayBlockingQueue<Logger.Context>(BUFFER_SIZE);
 		this.m_ansiFormatting = ansiFormatting;
 		this.m_shutdown = false;
-		m_executor.submit(this);
+		this.m_rateLimiter = null;
+		this.m_suppressionReporter = this::reportSuppressed;
+		this.m_last = new LogEvent(-1);
+		this.m_repeats = 0;
 	}
 
 	public <A extends Appender> AbstractLogger addAppender(A appender) {
@@ -63,62 +80,155 @@ public abstract class AbstractLogger implements Logger, Runnable {
 		return this;
 	}
 
-	@Override
-	public void run() {
-		try {
-			for (;;) {
-				try {
-					m_semaphore.acquire();
-					if (m_enabled) {
-						process();
-					}
-				} catch (PoisonPill p) {
-					break;
-				} finally {
-					m_semaphore.release();
-				}
+	protected final boolean enqueue(Level level, String message, Throwable t, Object[] args) {
+		if (m_shutdown) {
+			return false;
+		}
+		LogRateLimiter limiter = m_rateLimiter;
+		long suppressed = 0;
+		if (limiter != null) {
+			limiter.drain(false, m_suppressionReporter);
+			if (RATE_LIMITED.allows(level) && (suppressed = limiter.acquire(message)) == LogRateLimiter.DENIED) {
+				return false;
+			}
+		}
+		long timestamp = System.currentTimeMillis();
+		Thread thread = Thread.currentThread();
+		if (suppressed > 0) {
+			LogRingBuffer.INSTANCE.publish(this, timestamp, level, SUPPRESSED_TEMPLATE, new Object[] { suppressed, message }, null, NO_LINE, NO_METHOD, thread);
+		}
+		if (!m_layout.requiresLocation()) {
+			return LogRingBuffer.INSTANCE.publish(this, timestamp, level, message, args, t, NO_LINE, NO_METHOD, thread);
+		}
+		StackWalker.StackFrame frame = findCallingFrame();
+		return LogRingBuffer.INSTANCE.publish(this, timestamp, level, message, args, t, frame.getLineNumber(), frame.getMethodName(), thread);
+	}
+
+	/**
+	 * Reports messages the rate limiter denied which no admitted message of
+	 * the same template has reported yet.
+	 */
+	private void reportSuppressed(String template, long count) {
+		long timestamp = System.currentTimeMillis();
+		Thread thread = Thread.currentThread();
+		if (template == null) {
+			LogRingBuffer.INSTANCE.publish(this, timestamp, Level.WARN, SUPPRESSED_OVERFLOW_TEMPLATE, new Object[] { count }, null, NO_LINE, NO_METHOD, thread);
+		} else {
+			LogRingBuffer.INSTANCE.publish(this, timestamp, Level.WARN, SUPPRESSED_TEMPLATE, new Object[] { count, template }, null, NO_LINE, NO_METHOD, thread);
+		}
+	}
+
+	protected final boolean enqueue(Logger.Context ctx) {
+		if (m_shutdown) {
+			return false;
+		}
+		long timestamp = ctx.timestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+		return LogRingBuffer.INSTANCE.publish(this, timestamp, ctx.level(), ctx.message(), null, ctx.throwable(), ctx.line(), ctx.method(), ctx.thread());
+	}
+
+	/**
+	 * Writes an event, collapsing runs of identical events into a single
+	 * "repeated" line which is written when a different event arrives or once
+	 * the run has lasted a second.
+	 */
+	final void process(LogEvent event) throws IOException {
+		if (!m_enabled) {
+			return;
+		}
+		if (isRepeat(event)) {
+			if (m_repeats++ == 0) {
+				m_last.m_timestamp = event.m_timestamp;
 			}
-		} catch (InterruptedException e) {
-			throw new ConcurrentModificationException(e);
-		} catch (IOException e) {
-			e.printStackTrace();
-		} finally {
-			m_shutdown = true;
+			return;
 		}
+		reportRepeats();
+		m_last.m_level = event.m_level;
+		m_last.m_message = event.m_message;
+		m_last.m_args = event.m_args;
+		m_last.m_thread = event.m_thread;
+		m_last.m_logger = this;
+		write(event);
+	}
+
+	private boolean isRepeat(LogEvent event) {
+		return event.m_throwable == null
+				&& event.m_level == m_last.m_level
+				&& Objects.equals(event.m_message, m_last.m_message)
+				&& Arrays.equals(event.m_args, m_last.m_args);
 	}
 
-	private final void process() throws InterruptedException, IOException, PoisonPill {
-		Logger.Context ctx = m_queue.take();
-		if (ctx.line() == -1) throw new PoisonPill();
+	private void reportRepeats() throws IOException {
+		if (m_repeats == 0) {
+			return;
+		}
+		LogEvent summary = new LogEvent(-1);
+		summary.m_logger = this;
+		summary.m_timestamp = System.currentTimeMillis();
+		summary.m_level = m_last.m_level;
+		summary.m_message = REPEATED_TEMPLATE;
+		summary.m_args = new Object[] { m_repeats };
+		summary.m_method = NO_METHOD;
+		summary.m_thread = m_last.m_thread;
+		m_repeats = 0;
+		write(summary);
+	}
 
-		var timestamp = ctx.timestamp();
-		var name = ctx.name();
-		var level = ctx.level();
-		var message = ctx.message();
-		var throwable = ctx.throwable();
-		var line = ctx.line();
-		var method = ctx.method();
-		var thread = ctx.thread();
+	private void write(LogEvent event) throws IOException {
+		boolean text = false;
+		for (var appender : m_appenders) {
+			if (appender instanceof EventAppender structured) {
+				structured.append(event);
+			} else {
+				text = true;
+			}
+		}
+		if (!text) {
+			return;
+		}
 
-		var formatted = new StringBuilder(m_layout.format(timestamp, name, level, m_type, message, line, method, thread));
-		formatted.append(System.lineSeparator());
+		StringBuilder formatted = s_formatBuffer;
+		if (formatted.capacity() > MAX_FORMAT_BUFFER_CAPACITY) {
+			formatted = s_formatBuffer = new StringBuilder(FORMAT_BUFFER_CAPACITY);
+		}
+		formatted.setLength(0);
+		m_layout.format(formatted, event, m_type);
+		formatted.append(NEW_LINE);
 
-		write(new Appender.Message(formatted.toString(), m_ansiFormatting ? level.getTraits() : null));
+		write(new Appender.Message(formatted.toString(), m_ansiFormatting ? event.m_level.getTraits() : null));
 
-		if (throwable != null) {
-			printStackTrace(throwable, formatted);
+		if (event.m_throwable != null) {
+			printStackTrace(event.m_throwable, formatted);
 			write(new Appender.Message(formatted.toString(), m_ansiFormatting ? new AnsiTrait[] { Ansi.Traits.RED_FG } : null));
 		}
 	}
 
 	protected void write(Appender.Message message) throws IOException {
 		for (var appender : m_appenders) {
-			appender.append(message);
+			if (!(appender instanceof EventAppender)) {
+				appender.append(message);
+			}
+		}
+	}
+
+	final void flush() {
+		if (m_repeats > 0 && System.currentTimeMillis() - m_last.m_timestamp >= REPEAT_REPORT_MILLIS) {
+			try {
+				reportRepeats();
+			} catch (IOException e) {
+				System.err.println("Failed to report repeated messages for logger " + m_name);
+			}
+		}
+		for (var appender : m_appenders) {
+			try {
+				appender.flush();
+			} catch (IOException e) {
+				System.err.println("Failed to flush appender " + appender.getClass().getSimpleName());
+			}
 		}
 	}
 
 	private void printStackTrace(Throwable throwable, StringBuilder sb) {
-		final String newLine = System.lineSeparator();
+		final String newLine = NEW_LINE;
 
 		sb.setLength(0);
 		var stackTrace = throwable.getStackTrace();
@@ -133,24 +243,14 @@ public abstract class AbstractLogger implements Logger, Runnable {
 		sb.append(newLine);
 	}
 
-	protected final Logger.Context createContext(Level level, String message, Throwable t) {
-		StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-		StackTraceElement callingElement = findCallingElement(stackTrace);
-		String methodName = callingElement.getMethodName();
-		int lineNumber = callingElement.getLineNumber();
-		return new Logger.Context(LocalDateTime.now(), m_name, level, message, t, lineNumber, methodName, Thread.currentThread());
+	protected final StackWalker.StackFrame findCallingFrame() {
+		return s_stackWalker.walk(frames -> frames.dropWhile(AbstractLogger::isLoggingFrame).findFirst())
+				.orElseThrow(() -> new IllegalStateException("Attempting to log " + getType().getCanonicalName() + " outside of class bounds."));
 	}
 
-	protected final StackTraceElement findCallingElement(StackTraceElement[] stackTrace) {
-		int size = stackTrace.length;
-		String target = getType().getCanonicalName();
-		for (int i = 0; i < size; i++) {
-			StackTraceElement element = stackTrace[i];
-			if (element.getClassName().equals(target)) {
-				return element;
-			}
-		}
-		throw new IllegalStateException("Attempting to log " + target + " outside of class bounds.");
+	private static boolean isLoggingFrame(StackWalker.StackFrame frame) {
+		Class<?> type = frame.getDeclaringClass();
+		return type == Logger.class || AbstractLogger.class.isAssignableFrom(type);
 	}
 
 	public void close() {
@@ -166,15 +266,14 @@ public abstract class AbstractLogger implements Logger, Runnable {
 
 	@Override
 	public final void shutdown() {
-		try {
-			m_queue.put(Context.POISION_PILL);
-			while (!m_shutdown);
-			m_executor.shutdown();
-			m_executor.awaitTermination(1, TimeUnit.SECONDS);
-		} catch (InterruptedException e) {
-			System.err.println("Failed to terminate logger single thread executor within 1 second");
-			m_executor.shutdownNow();
+		LogRateLimiter limiter = m_rateLimiter;
+		if (limiter != null && !m_shutdown) {
+			limiter.drain(true, m_suppressionReporter);
+		}
+		if (!LogRingBuffer.INSTANCE.flush(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+			System.err.println("Failed to flush the logging buffer within " + SHUTDOWN_TIMEOUT_SECONDS + " second");
 		}
+		m_shutdown = true;
 	}
 
 	@Override
@@ -215,6 +314,12 @@ public abstract class AbstractLogger implements Logger, Runnable {
 		return this;
 	}
 
+	@Override
+	public Logger setRateLimit(double messagesPerSecond, int burst) {
+		m_rateLimiter = messagesPerSecond > 0 ? new LogRateLimiter(messagesPerSecond, burst) : null;
+		return this;
+	}
+
 	@Override
 	public Logger setAnsiFormatting(boolean flag) {
 		m_ansiFormatting = flag;
@@ -235,8 +340,4 @@ public abstract class AbstractLogger implements Logger, Runnable {
 	public void setEnabled(boolean flag) {
 		this.m_enabled = flag;
 	}
-
-	private class PoisonPill extends Throwable {
-		private static final long serialVersionUID = 1L;
-	}
 }
@@ -1,7 +1,11 @@
 package com.starworks.kronos.logging;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -53,16 +57,36 @@ public final class Layout {
 	private static final String METHOD_TOKEN 	   = "$method";
 	private static final String THREAD_TOKEN 	   = "$thread";
 
-	private String m_format;
+	private static final byte LITERAL_FIELD    = 0;
+	private static final byte TIMESTAMP_FIELD  = 1;
+	private static final byte NAME_FIELD       = 2;
+	private static final byte LEVEL_FIELD      = 3;
+	private static final byte TYPE_FIELD       = 4;
+	private static final byte MESSAGE_FIELD    = 5;
+	private static final byte LINE_FIELD       = 6;
+	private static final byte METHOD_FIELD     = 7;
+	private static final byte THREAD_FIELD     = 8;
+
+	private static final ZoneId s_zone = ZoneId.systemDefault();
+
+	private String m_pattern;
 	private DateTimeFormatter m_dateTimeFormatter;
+	private boolean m_requiresLocation;
+	private byte[] m_fields;
+	private String[] m_literals;
+	private CachedTimestamp m_cachedTimestamp;
 
 	private Layout(String format) {
 		setFormat(format);
 	}
 	
 	Layout(Layout layout) {
-		this.m_format = layout.m_format;
+		this.m_pattern = layout.m_pattern;
 		this.m_dateTimeFormatter = layout.m_dateTimeFormatter;
+		this.m_requiresLocation = layout.m_requiresLocation;
+		this.m_fields = layout.m_fields;
+		this.m_literals = layout.m_literals;
+		this.m_cachedTimestamp = null;
 	}
 
 	public static Layout design(String format) {
@@ -131,51 +155,154 @@ public final class Layout {
 	}
 	
 	public String format(LocalDateTime timestamp, String name, Level level, Class<?> type, String message, int line, String method, Thread thread) {
-		return String.format(m_format, m_dateTimeFormatter.format(timestamp), name, level.toString(), type.getCanonicalName(), message, line, method, thread.getName());
+		StringBuilder sb = new StringBuilder();
+		int count = m_fields.length;
+		for (int i = 0; i < count; i++) {
+			switch (m_fields[i]) {
+			case LITERAL_FIELD   -> sb.append(m_literals[i]);
+			case TIMESTAMP_FIELD -> m_dateTimeFormatter.formatTo(timestamp, sb);
+			case NAME_FIELD      -> sb.append(name);
+			case LEVEL_FIELD     -> sb.append(level.getName());
+			case TYPE_FIELD      -> sb.append(type.getCanonicalName());
+			case MESSAGE_FIELD   -> sb.append(message);
+			case LINE_FIELD      -> sb.append(line);
+			case METHOD_FIELD    -> sb.append(method);
+			case THREAD_FIELD    -> sb.append(thread.getName());
+			}
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Formats a buffered event into {@code sb}. The formatted timestamp is
+	 * reused for every event within the same millisecond.
+	 */
+	void format(StringBuilder sb, LogEvent event, Class<?> type) {
+		format(sb, event.m_timestamp, event.m_logger.getName(), event.m_level.getName(), type.getCanonicalName(), event.m_message, event.m_args, event.m_line, event.m_method, event.m_thread.getName());
+	}
+
+	/**
+	 * Formats an event from its raw parts, substituting {@code args} into the
+	 * {@code {n}} placeholders of {@code message} unless {@code args} is
+	 * {@code null}. Safe to call from any thread.
+	 */
+	public void format(StringBuilder sb, long timestamp, String name, String level, String type, String message, Object[] args, int line, String method, String thread) {
+		int count = m_fields.length;
+		for (int i = 0; i < count; i++) {
+			switch (m_fields[i]) {
+			case LITERAL_FIELD   -> sb.append(m_literals[i]);
+			case TIMESTAMP_FIELD -> sb.append(timestamp(timestamp));
+			case NAME_FIELD      -> sb.append(name);
+			case LEVEL_FIELD     -> sb.append(level);
+			case TYPE_FIELD      -> sb.append(type);
+			case MESSAGE_FIELD   -> {
+				if (args == null) {
+					sb.append(message);
+				} else {
+					MessageTemplate.of(message).format(sb, args);
+				}
+			}
+			case LINE_FIELD      -> sb.append(line);
+			case METHOD_FIELD    -> sb.append(method);
+			case THREAD_FIELD    -> sb.append(thread);
+			}
+		}
+	}
+
+	/**
+	 * The cached timestamp and its text are replaced together, so a thread
+	 * racing the logging thread sees either the old pair or the new one.
+	 */
+	private String timestamp(long millis) {
+		CachedTimestamp cached = m_cachedTimestamp;
+		if (cached == null || cached.millis() != millis) {
+			cached = new CachedTimestamp(millis, m_dateTimeFormatter.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), s_zone)));
+			m_cachedTimestamp = cached;
+		}
+		return cached.text();
 	}
 
 	void setFormat(String logFormat) {
 		Pattern pattern = Pattern.compile("\\$\\w+(<[^>]+>)?");
 		Matcher matcher = pattern.matcher(logFormat);
-		StringBuilder sb = new StringBuilder();
+		StringBuilder literal = new StringBuilder();
+		List<Byte> fields = new ArrayList<Byte>();
+		List<String> literals = new ArrayList<String>();
 		String timestampFormat = null;
+		boolean requiresLocation = false;
 		int size = logFormat.length();
 		for (int i = 0; i < size; i++) {
 			char c = logFormat.charAt(i);
 			if (c == '$') {
 				String token = matcher.find(i) ? matcher.group() : "";
 				i += token.length() - 1;
+				if (literal.length() > 0) {
+					fields.add(LITERAL_FIELD);
+					literals.add(literal.toString());
+					literal.setLength(0);
+				}
 				if (token.startsWith(TIMESTAMP_TOKEN)) {
 					timestampFormat = token.substring(TIMESTAMP_TOKEN.length() + 1, token.length() - 1);
-					sb.append("%1$s");
+					fields.add(TIMESTAMP_FIELD);
+					literals.add(null);
 					continue;
 				}
-				sb.append(switch (token) {
-					case NAME_TOKEN 	   -> "%2$s";
-					case LEVEL_TOKEN 	   -> "%3$s";
-					case TYPE_TOKEN 	   -> "%4$s";
-					case MESSAGE_TOKEN     -> "%5$s";
-					case LINE_NUMBER_TOKEN -> "%6$d";
-					case METHOD_TOKEN 	   -> "%7$s";
-					case THREAD_TOKEN 	   -> "%8$s";
-					default				   -> "???";
-				});
+				if (token.equals(LINE_NUMBER_TOKEN) || token.equals(METHOD_TOKEN)) {
+					requiresLocation = true;
+				}
+				byte field = switch (token) {
+					case NAME_TOKEN 	   -> NAME_FIELD;
+					case LEVEL_TOKEN 	   -> LEVEL_FIELD;
+					case TYPE_TOKEN 	   -> TYPE_FIELD;
+					case MESSAGE_TOKEN     -> MESSAGE_FIELD;
+					case LINE_NUMBER_TOKEN -> LINE_FIELD;
+					case METHOD_TOKEN 	   -> METHOD_FIELD;
+					case THREAD_TOKEN 	   -> THREAD_FIELD;
+					default				   -> LITERAL_FIELD;
+				};
+				fields.add(field);
+				literals.add(field == LITERAL_FIELD ? "???" : null);
 				continue;
 			}
 
-			sb.append(c);
+			literal.append(c);
+		}
+		if (literal.length() > 0) {
+			fields.add(LITERAL_FIELD);
+			literals.add(literal.toString());
 		}
 
 		if (timestampFormat == null) {
 			throw new NullPointerException();
 		}
 
-		this.m_format = sb.toString();
+		this.m_pattern = logFormat;
 		this.m_dateTimeFormatter = DateTimeFormatter.ofPattern(timestampFormat);
+		this.m_requiresLocation = requiresLocation;
+		this.m_fields = new byte[fields.size()];
+		for (int i = 0; i < m_fields.length; i++) {
+			m_fields[i] = fields.get(i);
+		}
+		this.m_literals = literals.toArray(new String[literals.size()]);
+		this.m_cachedTimestamp = null;
+	}
+
+	/**
+	 * Whether this layout prints the calling method or line number. Loggers only
+	 * walk the stack to find the call site when this returns {@code true}.
+	 */
+	public boolean requiresLocation() {
+		return m_requiresLocation;
 	}
 	
+	/**
+	 * @return the pattern this layout was compiled from
+	 */
 	@Override
 	public String toString() {
-		return m_format;
+		return m_pattern;
+	}
+
+	private static final record CachedTimestamp(long millis, String text) {
 	}
 }
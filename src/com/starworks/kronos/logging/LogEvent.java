@@ -0,0 +1,92 @@
+package com.starworks.kronos.logging;
+
+import com.starworks.kronos.logging.appender.Appender;
+
+/**
+ * A pre-allocated slot of the {@link LogRingBuffer}. Producers fill the fields
+ * in place and publish the slot by writing its sequence; the consumer formats
+ * the raw template and arguments, then clears the references so nothing is
+ * retained between laps of the ring.
+ *
+ * @author Ethan Temprovich
+ */
+final class LogEvent implements Appender.Event {
+
+	volatile long m_sequence;
+	AbstractLogger m_logger;
+	long m_timestamp;
+	Level m_level;
+	String m_message;
+	Object[] m_args;
+	Throwable m_throwable;
+	int m_line;
+	String m_method;
+	Thread m_thread;
+
+	LogEvent(long sequence) {
+		this.m_sequence = sequence;
+		clear();
+	}
+
+	void clear() {
+		m_logger = null;
+		m_timestamp = 0;
+		m_level = null;
+		m_message = null;
+		m_args = null;
+		m_throwable = null;
+		m_line = -1;
+		m_method = null;
+		m_thread = null;
+	}
+
+	@Override
+	public long timestamp() {
+		return m_timestamp;
+	}
+
+	@Override
+	public Level level() {
+		return m_level;
+	}
+
+	@Override
+	public String name() {
+		return m_logger.getName();
+	}
+
+	@Override
+	public Class<?> type() {
+		return m_logger.getType();
+	}
+
+	@Override
+	public String template() {
+		return m_message;
+	}
+
+	@Override
+	public Object[] arguments() {
+		return m_args;
+	}
+
+	@Override
+	public Throwable throwable() {
+		return m_throwable;
+	}
+
+	@Override
+	public int line() {
+		return m_line;
+	}
+
+	@Override
+	public String method() {
+		return m_method;
+	}
+
+	@Override
+	public Thread thread() {
+		return m_thread;
+	}
+}
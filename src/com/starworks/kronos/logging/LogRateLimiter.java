@@ -0,0 +1,140 @@
+package com.starworks.kronos.logging;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * A token bucket per message template. A template literal stands for the
+ * statement that logs it, but a message built by concatenation gets a new
+ * template for every distinct value, so the number of buckets is bounded:
+ * once it is reached, buckets which have refilled completely are evicted, at
+ * most once a second, and templates which still find no room share a single
+ * overflow bucket rather than going unlimited.
+ * <p>
+ * Each bucket is a single theoretical arrival time updated by CAS (the generic
+ * cell rate algorithm), so admitting a message costs one map lookup and one
+ * CAS; a rejected message is only counted, and the count is reported with an
+ * admitted message of the same bucket at most once a second. Counts of
+ * templates which stop logging altogether are reported by {@link #drain},
+ * which the logger calls as it logs anything else and when it shuts down.
+ *
+ * @author Ethan Temprovich
+ */
+final class LogRateLimiter {
+
+	static final long DENIED = -1;
+
+	private static final int MAX_CALL_SITES = 1 << 12;
+	private static final double NANOS_PER_SECOND = 1e9;
+	private static final long REPORT_INTERVAL_NANOS = 1_000_000_000L;
+
+	private final Map<String, Bucket> m_buckets;
+	private final Bucket m_overflow;
+	private final AtomicLong m_lastSweep;
+	private final AtomicLong m_lastDrain;
+	private final long m_interval;
+	private final long m_tolerance;
+
+	/**
+	 * @param messagesPerSecond the sustained rate each call site may log at
+	 * @param burst             how many messages a call site may log at once
+	 *                          after being quiet
+	 */
+	LogRateLimiter(double messagesPerSecond, int burst) {
+		this.m_buckets = new ConcurrentHashMap<String, Bucket>();
+		this.m_overflow = new Bucket();
+		this.m_lastSweep = new AtomicLong(System.nanoTime());
+		this.m_lastDrain = new AtomicLong(System.nanoTime());
+		this.m_interval = Math.max(1, (long) (NANOS_PER_SECOND / messagesPerSecond));
+		this.m_tolerance = m_interval * Math.max(0, burst - 1);
+	}
+
+	/**
+	 * @return {@link #DENIED} if the template's bucket has no tokens left,
+	 *         otherwise the number of its messages denied since the last
+	 *         report, or {@code 0} if there are none or it is too soon to
+	 *         report again
+	 */
+	long acquire(String template) {
+		long now = System.nanoTime();
+		Bucket bucket = m_buckets.get(template);
+		if (bucket == null) {
+			if (m_buckets.size() >= MAX_CALL_SITES) {
+				sweep(now);
+			}
+			bucket = m_buckets.size() < MAX_CALL_SITES ? m_buckets.computeIfAbsent(template, t -> new Bucket()) : m_overflow;
+		}
+		for (;;) {
+			long arrival = bucket.get();
+			if (now < arrival - m_tolerance) {
+				bucket.m_denied.incrementAndGet();
+				return DENIED;
+			}
+			if (bucket.compareAndSet(arrival, Math.max(arrival, now) + m_interval)) {
+				return bucket.report(now, false);
+			}
+		}
+	}
+
+	/**
+	 * Reports the denials of every bucket which has not reported them for a
+	 * report interval. Runs at most once per report interval, by one thread,
+	 * unless {@code force} is set.
+	 *
+	 * @param reporter receives each template and its count of denied messages;
+	 *                 the template is {@code null} for the overflow bucket
+	 */
+	void drain(boolean force, ObjLongConsumer<String> reporter) {
+		long now = System.nanoTime();
+		long last = m_lastDrain.get();
+		if (!force && (now - last < REPORT_INTERVAL_NANOS || !m_lastDrain.compareAndSet(last, now))) {
+			return;
+		}
+		for (Map.Entry<String, Bucket> entry : m_buckets.entrySet()) {
+			long denied = entry.getValue().report(now, force);
+			if (denied > 0) {
+				reporter.accept(entry.getKey(), denied);
+			}
+		}
+		long denied = m_overflow.report(now, force);
+		if (denied > 0) {
+			reporter.accept(null, denied);
+		}
+	}
+
+	/**
+	 * Evicts the buckets whose theoretical arrival time has passed, which hold
+	 * a full burst and no unreported denials, so dropping them changes
+	 * nothing. Runs at most once per report interval, by one thread.
+	 */
+	private void sweep(long now) {
+		long last = m_lastSweep.get();
+		if (now - last < REPORT_INTERVAL_NANOS || !m_lastSweep.compareAndSet(last, now)) {
+			return;
+		}
+		m_buckets.values().removeIf(bucket -> bucket.get() <= now && bucket.m_denied.get() == 0);
+	}
+
+	@SuppressWarnings("serial")
+	private static final class Bucket extends AtomicLong {
+
+		private final AtomicLong m_denied;
+		private volatile long m_lastReport;
+
+		private Bucket() {
+			super(System.nanoTime());
+			this.m_denied = new AtomicLong(0);
+			this.m_lastReport = get();
+		}
+
+		private long report(long now, boolean force) {
+			if (m_denied.get() == 0 || (!force && now - m_lastReport < REPORT_INTERVAL_NANOS)) {
+				return 0;
+			}
+			m_lastReport = now;
+			return m_denied.getAndSet(0);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.starworks.kronos.logging;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The single ring buffer shared by every {@link AbstractLogger}. Producers
+ * claim a sequence with a CAS, fill the pre-allocated slot in place and publish
+ * it by writing the slot's sequence; one background thread consumes slots in
+ * order and hands them to the logger that published them. A full buffer never
+ * blocks the caller: events below {@link Level#ERROR} are dropped and counted,
+ * while errors spin until the consumer frees a slot. Whenever the consumer runs
+ * out of events it flushes the appenders of every logger it wrote to.
+ *
+ * @author Ethan Temprovich
+ */
+enum LogRingBuffer {
+
+	INSTANCE;
+
+	static final int CAPACITY = 1 << 14;
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+	private static final byte SEVERE_FLAGS = Level.ERROR_FLAG | Level.FATAL_FLAG;
+
+	private final LogEvent[] m_slots;
+	private final int m_mask;
+	private final AtomicLong m_claimed;
+	private final AtomicLong m_dropped;
+	private final Thread m_consumer;
+	private final Set<AbstractLogger> m_unflushed;
+	private volatile long m_consumed;
+	private volatile long m_flushed;
+	private volatile boolean m_sleeping;
+
+	private LogRingBuffer() {
+		this.m_slots = new LogEvent[CAPACITY];
+		for (int i = 0; i < CAPACITY; i++) {
+			m_slots[i] = new LogEvent(i - CAPACITY);
+		}
+		this.m_mask = CAPACITY - 1;
+		this.m_claimed = new AtomicLong(0);
+		this.m_dropped = new AtomicLong(0);
+		this.m_unflushed = Collections.newSetFromMap(new IdentityHashMap<AbstractLogger, Boolean>());
+		this.m_consumed = 0;
+		this.m_flushed = 0;
+		this.m_sleeping = false;
+		this.m_consumer = new Thread(this::consume, "LoggingThread");
+		m_consumer.setDaemon(true);
+		m_consumer.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(1, TimeUnit.SECONDS), "LoggingShutdownHook"));
+	}
+
+	boolean publish(AbstractLogger logger, long timestamp, Level level, String message, Object[] args, Throwable throwable, int line, String method, Thread thread) {
+		long sequence;
+		for (;;) {
+			sequence = m_claimed.get();
+			if (sequence - m_consumed >= CAPACITY) {
+				if ((level.getFlag() & SEVERE_FLAGS) == 0) {
+					m_dropped.incrementAndGet();
+					return false;
+				}
+				LockSupport.unpark(m_consumer);
+				Thread.onSpinWait();
+				continue;
+			}
+			if (m_claimed.compareAndSet(sequence, sequence + 1)) {
+				break;
+			}
+		}
+		LogEvent event = m_slots[(int) sequence & m_mask];
+		event.m_logger = logger;
+		event.m_timestamp = timestamp;
+		event.m_level = level;
+		event.m_message = message;
+		event.m_args = args;
+		event.m_throwable = throwable;
+		event.m_line = line;
+		event.m_method = method;
+		event.m_thread = thread;
+		event.m_sequence = sequence;
+		if (m_sleeping) {
+			LockSupport.unpark(m_consumer);
+		}
+		return true;
+	}
+
+	/**
+	 * Waits until every event claimed before this call has been written and its
+	 * appenders flushed, or until the timeout elapses.
+	 *
+	 * @return {@code true} if the buffer was drained in time
+	 */
+	boolean flush(long timeout, TimeUnit unit) {
+		if (Thread.currentThread() == m_consumer) {
+			return false;
+		}
+		long target = m_claimed.get();
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		while (m_flushed < target) {
+			if (System.nanoTime() - deadline >= 0) {
+				return false;
+			}
+			LockSupport.unpark(m_consumer);
+			Thread.yield();
+		}
+		return true;
+	}
+
+	long dropped() {
+		return m_dropped.get();
+	}
+
+	private void consume() {
+		long next = 0;
+		for (;;) {
+			LogEvent event = m_slots[(int) next & m_mask];
+			if (event.m_sequence != next) {
+				if (m_flushed != next) {
+					for (AbstractLogger logger : m_unflushed) {
+						logger.flush();
+					}
+					m_unflushed.clear();
+					m_flushed = next;
+					continue;
+				}
+				m_sleeping = true;
+				if (event.m_sequence != next) {
+					LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+				}
+				m_sleeping = false;
+				continue;
+			}
+			try {
+				m_unflushed.add(event.m_logger);
+				event.m_logger.process(event);
+			} catch (Throwable t) {
+				t.printStackTrace();
+			} finally {
+				event.clear();
+				m_consumed = ++next;
+			}
+			long dropped = m_dropped.get();
+			if (dropped > 0 && m_dropped.compareAndSet(dropped, 0)) {
+				System.err.println("Logging buffer overflowed; " + dropped + " events were dropped");
+			}
+		}
+	}
+}
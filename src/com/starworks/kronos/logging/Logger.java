@@ -2,133 +2,475 @@ package com.starworks.kronos.logging;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 import com.starworks.kronos.logging.appender.Appender;
 
 public interface Logger extends AutoCloseable {
 
-	Context log(Level level, String message);
+	void log(Level level, String message);
 
-	Context log(Level level, String message, Throwable t);
+	void log(Level level, String message, Throwable t);
 
-	default Context log(Level level, String message, Object... args) {
-		return log(level, message, null, args);
+	default void log(Level level, String message, Object... args) {
+		log(level, message, null, args);
 	}
 
-	Context log(Level level, String message, Throwable t, Object... args);
+	void log(Level level, String message, Throwable t, Object... args);
 
-	Context log(Context ctx);
+	void log(Context ctx);
 
-	default Context trace(String message) {
-		return log(Level.TRACE, message);
+	/**
+	 * Whether a message at {@code level} would be logged. This is the check
+	 * every overload below makes before boxing or allocating anything, and
+	 * what a caller should guard expensive argument construction with.
+	 */
+	boolean isEnabled(Level level);
+
+	default void log(Level level, String message, Object arg) {
+		if (isEnabled(level)) {
+			log(level, message, null, new Object[] { arg });
+		}
+	}
+
+	default void log(Level level, String message, Object arg0, Object arg1) {
+		if (isEnabled(level)) {
+			log(level, message, null, new Object[] { arg0, arg1 });
+		}
+	}
+
+	default void log(Level level, String message, Throwable t, Object arg) {
+		if (isEnabled(level)) {
+			log(level, message, t, new Object[] { arg });
+		}
+	}
+
+	default void log(Level level, String message, int arg) {
+		if (isEnabled(level)) {
+			log(level, message, null, new Object[] { arg });
+		}
+	}
+
+	default void log(Level level, String message, long arg) {
+		if (isEnabled(level)) {
+			log(level, message, null, new Object[] { arg });
+		}
+	}
+
+	default void log(Level level, String message, double arg) {
+		if (isEnabled(level)) {
+			log(level, message, null, new Object[] { arg });
+		}
+	}
+
+	default void log(Level level, String message, boolean arg) {
+		if (isEnabled(level)) {
+			log(level, message, null, new Object[] { arg });
+		}
+	}
+
+	/**
+	 * Logs the message produced by {@code message}, which is only invoked if
+	 * {@code level} is enabled.
+	 */
+	default void log(Level level, Supplier<String> message) {
+		if (isEnabled(level)) {
+			log(level, message.get());
+		}
+	}
+
+	default void log(Level level, Supplier<String> message, Throwable t) {
+		if (isEnabled(level)) {
+			log(level, message.get(), t);
+		}
+	}
+
+	default void trace(String message) {
+		log(Level.TRACE, message);
+	}
+
+	default void trace(String message, Throwable t) {
+		log(Level.TRACE, message, t);
+	}
+
+	default void trace(String message, Object... args) {
+		log(Level.TRACE, message, args);
+	}
+
+	default void trace(String message, Throwable t, Object... args) {
+		log(Level.TRACE, message, t, args);
+	}
+
+	default void trace(String message, Object arg) {
+		log(Level.TRACE, message, arg);
+	}
+
+	default void trace(String message, Object arg0, Object arg1) {
+		log(Level.TRACE, message, arg0, arg1);
+	}
+
+	default void trace(String message, Throwable t, Object arg) {
+		log(Level.TRACE, message, t, arg);
+	}
+
+	default void trace(String message, int arg) {
+		log(Level.TRACE, message, arg);
+	}
+
+	default void trace(String message, long arg) {
+		log(Level.TRACE, message, arg);
+	}
+
+	default void trace(String message, double arg) {
+		log(Level.TRACE, message, arg);
+	}
+
+	default void trace(String message, boolean arg) {
+		log(Level.TRACE, message, arg);
+	}
+
+	default void trace(Supplier<String> message) {
+		log(Level.TRACE, message);
+	}
+
+	default void trace(Supplier<String> message, Throwable t) {
+		log(Level.TRACE, message, t);
+	}
+
+	default boolean isTraceEnabled() {
+		return isEnabled(Level.TRACE);
+	}
+
+	default void debug(String message) {
+		log(Level.DEBUG, message);
+	}
+
+	default void debug(String message, Throwable t) {
+		log(Level.DEBUG, message, t);
+	}
+
+	default void debug(String message, Object... args) {
+		log(Level.DEBUG, message, args);
+	}
+
+	default void debug(String message, Throwable t, Object... args) {
+		log(Level.DEBUG, message, t, args);
+	}
+
+	default void debug(String message, Object arg) {
+		log(Level.DEBUG, message, arg);
+	}
+
+	default void debug(String message, Object arg0, Object arg1) {
+		log(Level.DEBUG, message, arg0, arg1);
+	}
+
+	default void debug(String message, Throwable t, Object arg) {
+		log(Level.DEBUG, message, t, arg);
+	}
+
+	default void debug(String message, int arg) {
+		log(Level.DEBUG, message, arg);
+	}
+
+	default void debug(String message, long arg) {
+		log(Level.DEBUG, message, arg);
+	}
+
+	default void debug(String message, double arg) {
+		log(Level.DEBUG, message, arg);
+	}
+
+	default void debug(String message, boolean arg) {
+		log(Level.DEBUG, message, arg);
+	}
+
+	default void debug(Supplier<String> message) {
+		log(Level.DEBUG, message);
+	}
+
+	default void debug(Supplier<String> message, Throwable t) {
+		log(Level.DEBUG, message, t);
+	}
+
+	default boolean isDebugEnabled() {
+		return isEnabled(Level.DEBUG);
+	}
+
+	default void info(String message) {
+		log(Level.INFO, message);
+	}
+
+	default void info(String message, Throwable t) {
+		log(Level.INFO, message, t);
+	}
+
+	default void info(String message, Object... args) {
+		log(Level.INFO, message, args);
 	}
 
-	default Context trace(String message, Throwable t) {
-		return log(Level.TRACE, message, t);
+	default void info(String message, Throwable t, Object... args) {
+		log(Level.INFO, message, t, args);
 	}
 
-	default Context trace(String message, Object... args) {
-		return log(Level.TRACE, message, args);
+	default void info(String message, Object arg) {
+		log(Level.INFO, message, arg);
 	}
 
-	default Context trace(String message, Throwable t, Object... args) {
-		return log(Level.TRACE, message, t, args);
+	default void info(String message, Object arg0, Object arg1) {
+		log(Level.INFO, message, arg0, arg1);
 	}
 
-	default Context debug(String message) {
-		return log(Level.DEBUG, message);
+	default void info(String message, Throwable t, Object arg) {
+		log(Level.INFO, message, t, arg);
 	}
 
-	default Context debug(String message, Throwable t) {
-		return log(Level.DEBUG, message, t);
+	default void info(String message, int arg) {
+		log(Level.INFO, message, arg);
 	}
 
-	default Context debug(String message, Object... args) {
-		return log(Level.DEBUG, message, args);
+	default void info(String message, long arg) {
+		log(Level.INFO, message, arg);
 	}
 
-	default Context debug(String message, Throwable t, Object... args) {
-		return log(Level.DEBUG, message, t, args);
+	default void info(String message, double arg) {
+		log(Level.INFO, message, arg);
 	}
 
-	default Context info(String message) {
-		return log(Level.INFO, message);
+	default void info(String message, boolean arg) {
+		log(Level.INFO, message, arg);
 	}
 
-	default Context info(String message, Throwable t) {
-		return log(Level.INFO, message, t);
+	default void info(Supplier<String> message) {
+		log(Level.INFO, message);
 	}
 
-	default Context info(String message, Object... args) {
-		return log(Level.INFO, message, args);
+	default void info(Supplier<String> message, Throwable t) {
+		log(Level.INFO, message, t);
 	}
 
-	default Context info(String message, Throwable t, Object... args) {
-		return log(Level.INFO, message, t, args);
+	default boolean isInfoEnabled() {
+		return isEnabled(Level.INFO);
 	}
 
-	default Context warn(String message) {
-		return log(Level.WARN, message);
+	default void warn(String message) {
+		log(Level.WARN, message);
 	}
 
-	default Context warn(String message, Throwable t) {
-		return log(Level.WARN, message, t);
+	default void warn(String message, Throwable t) {
+		log(Level.WARN, message, t);
 	}
 
-	default Context warn(String message, Object... args) {
-		return log(Level.WARN, message, args);
+	default void warn(String message, Object... args) {
+		log(Level.WARN, message, args);
 	}
 
-	default Context warn(String message, Throwable t, Object... args) {
-		return log(Level.WARN, message, t, args);
+	default void warn(String message, Throwable t, Object... args) {
+		log(Level.WARN, message, t, args);
 	}
 
-	default Context error(String message) {
-		return log(Level.ERROR, message);
+	default void warn(String message, Object arg) {
+		log(Level.WARN, message, arg);
 	}
 
-	default Context error(String message, Throwable t) {
-		return log(Level.ERROR, message, t);
+	default void warn(String message, Object arg0, Object arg1) {
+		log(Level.WARN, message, arg0, arg1);
 	}
 
-	default Context error(String message, Object... args) {
-		return log(Level.ERROR, message, args);
+	default void warn(String message, Throwable t, Object arg) {
+		log(Level.WARN, message, t, arg);
 	}
 
-	default Context error(String message, Throwable t, Object... args) {
-		return log(Level.ERROR, message, t, args);
+	default void warn(String message, int arg) {
+		log(Level.WARN, message, arg);
 	}
 
-	default Context fatal(String message) {
-		return log(Level.FATAL, message);
+	default void warn(String message, long arg) {
+		log(Level.WARN, message, arg);
 	}
 
-	default Context fatal(String message, Throwable t) {
-		return log(Level.FATAL, message, t);
+	default void warn(String message, double arg) {
+		log(Level.WARN, message, arg);
 	}
 
-	default Context fatal(String message, Object... args) {
-		return log(Level.FATAL, message, args);
+	default void warn(String message, boolean arg) {
+		log(Level.WARN, message, arg);
 	}
 
-	default Context fatal(String message, Throwable t, Object... args) {
-		return log(Level.FATAL, message, t, args);
+	default void warn(Supplier<String> message) {
+		log(Level.WARN, message);
 	}
 
-	default Context all(String message) {
-		return log(Level.ALL, message);
+	default void warn(Supplier<String> message, Throwable t) {
+		log(Level.WARN, message, t);
 	}
 
-	default Context all(String message, Throwable t) {
-		return log(Level.ALL, message, t);
+	default boolean isWarnEnabled() {
+		return isEnabled(Level.WARN);
 	}
 
-	default Context all(String message, Object... args) {
-		return log(Level.ALL, message, args);
+	default void error(String message) {
+		log(Level.ERROR, message);
 	}
 
-	default Context all(String message, Throwable t, Object... args) {
-		return log(Level.ALL, message, t, args);
+	default void error(String message, Throwable t) {
+		log(Level.ERROR, message, t);
+	}
+
+	default void error(String message, Object... args) {
+		log(Level.ERROR, message, args);
+	}
+
+	default void error(String message, Throwable t, Object... args) {
+		log(Level.ERROR, message, t, args);
+	}
+
+	default void error(String message, Object arg) {
+		log(Level.ERROR, message, arg);
+	}
+
+	default void error(String message, Object arg0, Object arg1) {
+		log(Level.ERROR, message, arg0, arg1);
+	}
+
+	default void error(String message, Throwable t, Object arg) {
+		log(Level.ERROR, message, t, arg);
+	}
+
+	default void error(String message, int arg) {
+		log(Level.ERROR, message, arg);
+	}
+
+	default void error(String message, long arg) {
+		log(Level.ERROR, message, arg);
+	}
+
+	default void error(String message, double arg) {
+		log(Level.ERROR, message, arg);
+	}
+
+	default void error(String message, boolean arg) {
+		log(Level.ERROR, message, arg);
+	}
+
+	default void error(Supplier<String> message) {
+		log(Level.ERROR, message);
+	}
+
+	default void error(Supplier<String> message, Throwable t) {
+		log(Level.ERROR, message, t);
+	}
+
+	default boolean isErrorEnabled() {
+		return isEnabled(Level.ERROR);
+	}
+
+	default void fatal(String message) {
+		log(Level.FATAL, message);
+	}
+
+	default void fatal(String message, Throwable t) {
+		log(Level.FATAL, message, t);
+	}
+
+	default void fatal(String message, Object... args) {
+		log(Level.FATAL, message, args);
+	}
+
+	default void fatal(String message, Throwable t, Object... args) {
+		log(Level.FATAL, message, t, args);
+	}
+
+	default void fatal(String message, Object arg) {
+		log(Level.FATAL, message, arg);
+	}
+
+	default void fatal(String message, Object arg0, Object arg1) {
+		log(Level.FATAL, message, arg0, arg1);
+	}
+
+	default void fatal(String message, Throwable t, Object arg) {
+		log(Level.FATAL, message, t, arg);
+	}
+
+	default void fatal(String message, int arg) {
+		log(Level.FATAL, message, arg);
+	}
+
+	default void fatal(String message, long arg) {
+		log(Level.FATAL, message, arg);
+	}
+
+	default void fatal(String message, double arg) {
+		log(Level.FATAL, message, arg);
+	}
+
+	default void fatal(String message, boolean arg) {
+		log(Level.FATAL, message, arg);
+	}
+
+	default void fatal(Supplier<String> message) {
+		log(Level.FATAL, message);
+	}
+
+	default void fatal(Supplier<String> message, Throwable t) {
+		log(Level.FATAL, message, t);
+	}
+
+	default boolean isFatalEnabled() {
+		return isEnabled(Level.FATAL);
+	}
+
+	default void all(String message) {
+		log(Level.ALL, message);
+	}
+
+	default void all(String message, Throwable t) {
+		log(Level.ALL, message, t);
+	}
+
+	default void all(String message, Object... args) {
+		log(Level.ALL, message, args);
+	}
+
+	default void all(String message, Throwable t, Object... args) {
+		log(Level.ALL, message, t, args);
+	}
+
+	default void all(String message, Object arg) {
+		log(Level.ALL, message, arg);
+	}
+
+	default void all(String message, Object arg0, Object arg1) {
+		log(Level.ALL, message, arg0, arg1);
+	}
+
+	default void all(String message, Throwable t, Object arg) {
+		log(Level.ALL, message, t, arg);
+	}
+
+	default void all(String message, int arg) {
+		log(Level.ALL, message, arg);
+	}
+
+	default void all(String message, long arg) {
+		log(Level.ALL, message, arg);
+	}
+
+	default void all(String message, double arg) {
+		log(Level.ALL, message, arg);
+	}
+
+	default void all(String message, boolean arg) {
+		log(Level.ALL, message, arg);
+	}
+
+	default void all(Supplier<String> message) {
+		log(Level.ALL, message);
+	}
+
+	default void all(Supplier<String> message, Throwable t) {
+		log(Level.ALL, message, t);
 	}
 
 	String getName();
@@ -146,6 +488,19 @@ public interface Logger extends AutoCloseable {
 	Logger setLayout(Layout layout);
 
 	Logger setAnsiFormatting(boolean flag);
+
+	/**
+	 * Limits how often each call site, identified by its message template, may
+	 * log; messages over the limit are dropped before they are buffered and
+	 * reported as a count with the site's next message. Errors and fatal
+	 * messages are never limited.
+	 *
+	 * @param messagesPerSecond the sustained rate per call site, or {@code 0} to
+	 *                          disable rate limiting
+	 * @param burst             how many messages a quiet call site may log at
+	 *                          once
+	 */
+	Logger setRateLimit(double messagesPerSecond, int burst);
 	
 	List<Appender> getAppenders();
 	
@@ -166,7 +521,6 @@ public interface Logger extends AutoCloseable {
 	void close();
 
 	public record Context(LocalDateTime timestamp, String name, Level level, String message, Throwable throwable, int line, String method, Thread thread) {
-		static final Context POISION_PILL = new Context(null, "", Level.OFF, "", null, -1, "", null);
 	}
 
 	public static Logger getLogger(String name, Class<?> type, Level level, Appender... appenders) {
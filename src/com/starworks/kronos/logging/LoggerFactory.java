@@ -17,12 +17,20 @@ final class LoggerFactory {
 	private static final Level LEVEL 						= 	Configuration.logging.level();
 	private static final Layout LAYOUT 						= 	Configuration.logging.layout();
 	private static final String DIRECTORY 					= 	Configuration.logging.directory();
-	private static final int MAX_ROTATING_FILE_LINE_COUNT	=	Configuration.logging.maxRotatingFileLineCount();
+	private static final long MAX_ROTATING_FILE_SIZE		=	Configuration.logging.maxRotatingFileSize();
+	private static final int MAX_ROTATED_FILE_COUNT			=	Configuration.logging.maxRotatedFileCount();
+	private static final boolean COMPRESS_ROTATED_FILES		=	Configuration.logging.compressRotatedFiles();
+	private static final double RATE_LIMIT_PER_SECOND		=	Configuration.logging.rateLimitPerSecond();
+	private static final int RATE_LIMIT_BURST				=	Configuration.logging.rateLimitBurst();
 	private static final boolean LOG_TO_CONSOLE 			= 	Configuration.logging.logToConsole();
 	private static final boolean LOG_TO_FILE 				= 	Configuration.logging.logToFile();
 	private static final boolean ANSI_FORMATTING 			= 	Configuration.logging.ansiFormatting();
 	
 	private static final List<Appender> s_reusableAppenderList = new ArrayList<Appender>(2);
+
+	/** Shared by every logger so buffered file output stays in order and only one file is held open. */
+	private static final Appender s_consoleAppender			=	LOG_TO_CONSOLE ? new ConsoleAppender() : null;
+	private static final Appender s_fileAppender			=	LOG_TO_FILE ? new RotatingDateFileAppender(DIRECTORY, MAX_ROTATING_FILE_SIZE, MAX_ROTATED_FILE_COUNT, COMPRESS_ROTATED_FILES) : null;
 	
 	private LoggerFactory() {}
 
@@ -80,6 +88,7 @@ final class LoggerFactory {
 			Class<?> loggerClass = Class.forName(IMPL);
 			Constructor<?> constructor = loggerClass.getConstructor(String.class, Class.class, Level.class, Layout.class, List.class, boolean.class);
 			Logger logger = (Logger) constructor.newInstance(name, type, level, layout, appenders, ansiFormatting);
+			logger.setRateLimit(RATE_LIMIT_PER_SECOND, RATE_LIMIT_BURST);
 			return logger;
 		} catch (ClassNotFoundException | NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
 			e.printStackTrace();
@@ -89,8 +98,8 @@ final class LoggerFactory {
 
 	private static List<Appender> compileAppenders(Appender... appenders) {
 		s_reusableAppenderList.clear();
-		if (LOG_TO_CONSOLE) s_reusableAppenderList.add(new ConsoleAppender());
-		if (LOG_TO_FILE) s_reusableAppenderList.add(new RotatingDateFileAppender(DIRECTORY, MAX_ROTATING_FILE_LINE_COUNT));
+		if (LOG_TO_CONSOLE) s_reusableAppenderList.add(s_consoleAppender);
+		if (LOG_TO_FILE) s_reusableAppenderList.add(s_fileAppender);
 		int size = appenders.length;
 		for (int i = 0; i < size; i++) {
 			var appender = appenders[i];
@@ -0,0 +1,122 @@
+package com.starworks.kronos.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A message pattern such as {@code "Loaded {0} in {1} ms"} compiled once into
+ * alternating literal and argument segments. Compiled templates are cached by
+ * pattern and formatted directly into a caller supplied buffer, so a cached
+ * template formats without allocating.
+ *
+ * <p>
+ * The cache is safe to use from any thread, as formatting is reachable from
+ * public layout and decoder methods as well as the logging thread. Once it is
+ * full, new patterns are compiled on each use instead of cached.
+ *
+ * @author Ethan Temprovich
+ */
+final class MessageTemplate {
+
+	private static final int MAX_CACHED_TEMPLATES = 1 << 12;
+	private static final Map<String, MessageTemplate> s_cache = new ConcurrentHashMap<String, MessageTemplate>();
+
+	private final String m_pattern;
+	private final String[] m_literals;
+	private final int[] m_indices;
+
+	private MessageTemplate(String pattern, String[] literals, int[] indices) {
+		this.m_pattern = pattern;
+		this.m_literals = literals;
+		this.m_indices = indices;
+	}
+
+	static MessageTemplate of(String pattern) {
+		MessageTemplate template = s_cache.get(pattern);
+		if (template != null) {
+			return template;
+		}
+		if (s_cache.size() >= MAX_CACHED_TEMPLATES) {
+			return compile(pattern);
+		}
+		return s_cache.computeIfAbsent(pattern, MessageTemplate::compile);
+	}
+
+	static MessageTemplate compile(String pattern) {
+		List<String> literals = new ArrayList<String>();
+		List<Integer> indices = new ArrayList<Integer>();
+		int length = pattern.length();
+		int literalStart = 0;
+		for (int i = 0; i < length; i++) {
+			if (pattern.charAt(i) != '{') {
+				continue;
+			}
+			int j = i + 1;
+			int index = 0;
+			while (j < length && Character.isDigit(pattern.charAt(j))) {
+				index = index * 10 + (pattern.charAt(j) - '0');
+				j++;
+			}
+			if (j == i + 1 || j >= length || pattern.charAt(j) != '}') {
+				continue;
+			}
+			literals.add(pattern.substring(literalStart, i));
+			indices.add(index);
+			literalStart = j + 1;
+			i = j;
+		}
+		literals.add(pattern.substring(literalStart));
+		return new MessageTemplate(pattern, literals.toArray(new String[literals.size()]), indices.stream().mapToInt(Integer::intValue).toArray());
+	}
+
+	void format(StringBuilder sb, Object[] args) {
+		int argCount = args == null ? 0 : args.length;
+		for (int index : m_indices) {
+			if (index >= argCount) {
+				sb.append("Passed {");
+				sb.append(index);
+				sb.append("} parameter to \"");
+				sb.append(m_pattern);
+				sb.append("\" but only provided ");
+				sb.append(argCount);
+				sb.append(" args: ");
+				sb.append(Arrays.toString(args));
+				return;
+			}
+		}
+		int count = m_indices.length;
+		for (int i = 0; i < count; i++) {
+			sb.append(m_literals[i]);
+			appendArgument(sb, args[m_indices[i]]);
+		}
+		sb.append(m_literals[count]);
+	}
+
+	static void appendArgument(StringBuilder sb, Object arg) {
+		if (arg instanceof CharSequence chars) {
+			sb.append(chars);
+		} else if (arg instanceof Integer value) {
+			sb.append(value.intValue());
+		} else if (arg instanceof Long value) {
+			sb.append(value.longValue());
+		} else if (arg instanceof Double value) {
+			sb.append(value.doubleValue());
+		} else if (arg instanceof Float value) {
+			sb.append(value.floatValue());
+		} else if (arg instanceof Boolean value) {
+			sb.append(value.booleanValue());
+		} else if (arg instanceof Character value) {
+			sb.append(value.charValue());
+		} else {
+			sb.append(arg);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return m_pattern;
+	}
+}
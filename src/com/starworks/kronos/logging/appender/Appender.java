@@ -3,14 +3,49 @@ package com.starworks.kronos.logging.appender;
 import java.io.Closeable;
 import java.io.IOException;
 
+import com.starworks.kronos.logging.Level;
 import com.starworks.kronos.toolkit.Ansi.AnsiTrait;
 
 public interface Appender extends Closeable {
 
     void append(Message message) throws IOException;
 
+	default void flush() throws IOException {
+	}
+
 	void close() throws IOException;
 	
 	public static record Message(String msg, AnsiTrait... ansiTraits) {
 	}
+
+	/**
+	 * A read-only view of an event before it is formatted. The view is only
+	 * valid for the duration of the call it is passed to.
+	 */
+	public static interface Event {
+
+		long timestamp();
+
+		Level level();
+
+		String name();
+
+		Class<?> type();
+
+		String template();
+
+		/**
+		 * @return the arguments for the template's {@code {n}} placeholders, or
+		 *         {@code null} if the template is an already formatted message
+		 */
+		Object[] arguments();
+
+		Throwable throwable();
+
+		int line();
+
+		String method();
+
+		Thread thread();
+	}
 }
\ No newline at end of file
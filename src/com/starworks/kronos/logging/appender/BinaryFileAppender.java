@@ -0,0 +1,286 @@
+package com.starworks.kronos.logging.appender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.starworks.kronos.files.FileSystem;
+
+/**
+ * Writes events as compact binary records instead of formatted text. Logger
+ * names, types, templates, threads, methods and stack frames are written once
+ * into a per file dictionary and referenced by id afterwards; arguments are
+ * stored raw, and timestamps as the difference from the previous event. Use
+ * {@link BinaryLogDecoder} to render a file with any {@code Layout}.
+ * <p>
+ * A file is a sequence of records, each starting with a tag byte:
+ * <ul>
+ * <li>{@code HEADER}: magic and version; resets the dictionary and timestamp,
+ * written whenever the appender opens a file so that sessions can be appended
+ * to the same file.</li>
+ * <li>{@code STRING}: a dictionary entry, its id followed by the string.</li>
+ * <li>{@code EVENT}: timestamp delta, level, name, type, thread, method, line,
+ * template, arguments and stack frames. The argument count is stored plus
+ * one, so zero marks a message logged without arguments, which the decoder
+ * prints as it is rather than formatting.</li>
+ * </ul>
+ * Integers are unsigned LEB128 varints, signed ones zigzag encoded first.
+ *
+ * @author Ethan Temprovich
+ */
+public final class BinaryFileAppender implements EventAppender {
+
+	public static final String EXTENSION = ".klog";
+
+	static final int MAGIC = 0x4B4C4F47;
+	static final int VERSION = 1;
+
+	static final byte HEADER_RECORD = 0;
+	static final byte STRING_RECORD = 1;
+	static final byte EVENT_RECORD = 2;
+
+	static final int NULL_REFERENCE = 0;
+	static final int INLINE_REFERENCE = 1;
+	static final int FIRST_DICTIONARY_ID = 2;
+
+	static final byte NULL_ARGUMENT = 0;
+	static final byte INT_ARGUMENT = 1;
+	static final byte LONG_ARGUMENT = 2;
+	static final byte FLOAT_ARGUMENT = 3;
+	static final byte DOUBLE_ARGUMENT = 4;
+	static final byte TRUE_ARGUMENT = 5;
+	static final byte FALSE_ARGUMENT = 6;
+	static final byte CHAR_ARGUMENT = 7;
+	static final byte STRING_ARGUMENT = 8;
+
+	private static final int BUFFER_CAPACITY = 1 << 16;
+	private static final int MAX_DICTIONARY_SIZE = 1 << 16;
+	private static final int MAX_VARINT_BYTES = 10;
+	private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final Path m_path;
+	private final ByteBuffer m_buffer;
+	private final Map<String, Integer> m_dictionary;
+	private int[] m_frames;
+	private FileChannel m_channel;
+	private long m_lastTimestamp;
+	private long m_lastFlush;
+
+	public BinaryFileAppender(String path) {
+		String p = path + (path.endsWith(EXTENSION) ? "" : EXTENSION);
+		this.m_path = Paths.get(FileSystem.INSTANCE.get(p));
+		this.m_buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+		this.m_dictionary = new HashMap<String, Integer>();
+		this.m_frames = new int[64];
+		this.m_channel = null;
+		this.m_lastTimestamp = 0;
+		this.m_lastFlush = System.nanoTime();
+	}
+
+	@Override
+	public synchronized void append(Event event) throws IOException {
+		if (m_channel == null) {
+			open();
+		}
+		int name = reference(event.name());
+		int type = reference(event.type().getCanonicalName());
+		int level = reference(event.level().getName());
+		int thread = reference(event.thread().getName());
+		int method = reference(event.method());
+		int template = reference(event.template());
+		StackTraceElement[] stackTrace = event.throwable() == null ? null : event.throwable().getStackTrace();
+		int frameCount = stackTrace == null ? 0 : stackTrace.length;
+		if (frameCount > m_frames.length) {
+			m_frames = new int[Math.max(frameCount, m_frames.length << 1)];
+		}
+		for (int i = 0; i < frameCount; i++) {
+			m_frames[i] = reference(stackTrace[i].toString());
+		}
+
+		ensure(1 + MAX_VARINT_BYTES * 2);
+		m_buffer.put(EVENT_RECORD);
+		putSignedVarLong(event.timestamp() - m_lastTimestamp);
+		m_lastTimestamp = event.timestamp();
+		putReference(level, event.level().getName());
+		putReference(name, event.name());
+		putReference(type, event.type().getCanonicalName());
+		putReference(thread, event.thread().getName());
+		putReference(method, event.method());
+		ensure(MAX_VARINT_BYTES);
+		putSignedVarLong(event.line());
+		putReference(template, event.template());
+		Object[] args = event.arguments();
+		ensure(MAX_VARINT_BYTES);
+		if (args == null) {
+			putVarInt(0);
+		} else {
+			putVarInt(args.length + 1);
+			for (Object arg : args) {
+				putArgument(arg);
+			}
+		}
+		ensure(MAX_VARINT_BYTES);
+		putVarInt(stackTrace == null ? 0 : frameCount + 1);
+		for (int i = 0; i < frameCount; i++) {
+			putReference(m_frames[i], m_frames[i] == INLINE_REFERENCE ? stackTrace[i].toString() : null);
+		}
+
+		if (System.nanoTime() - m_lastFlush >= FLUSH_INTERVAL_NANOS) {
+			flush();
+		}
+	}
+
+	@Override
+	public synchronized void flush() throws IOException {
+		m_lastFlush = System.nanoTime();
+		if (m_buffer.position() == 0 || m_channel == null) {
+			return;
+		}
+		m_buffer.flip();
+		while (m_buffer.hasRemaining()) {
+			m_channel.write(m_buffer);
+		}
+		m_buffer.clear();
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		flush();
+		if (m_channel != null) {
+			m_channel.close();
+			m_channel = null;
+		}
+	}
+
+	public Path getPath() {
+		return m_path;
+	}
+
+	/**
+	 * Opens the file for appending and starts a new dictionary, since the ids
+	 * of anything already in the file belong to an earlier session.
+	 */
+	private void open() throws IOException {
+		Path parent = m_path.toAbsolutePath().getParent();
+		if (parent != null) {
+			Files.createDirectories(parent);
+		}
+		m_channel = FileChannel.open(m_path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		m_dictionary.clear();
+		m_lastTimestamp = 0;
+		ensure(1 + 4 + MAX_VARINT_BYTES);
+		m_buffer.put(HEADER_RECORD);
+		m_buffer.putInt(MAGIC);
+		putVarInt(VERSION);
+	}
+
+	/**
+	 * Returns the dictionary id of {@code value}, writing a dictionary entry the
+	 * first time it is seen. Once the dictionary is full, values which are not
+	 * already in it are written inline.
+	 */
+	private int reference(String value) throws IOException {
+		if (value == null) {
+			return NULL_REFERENCE;
+		}
+		Integer id = m_dictionary.get(value);
+		if (id != null) {
+			return id;
+		}
+		if (m_dictionary.size() >= MAX_DICTIONARY_SIZE) {
+			return INLINE_REFERENCE;
+		}
+		int next = m_dictionary.size() + FIRST_DICTIONARY_ID;
+		m_dictionary.put(value, next);
+		ensure(1 + MAX_VARINT_BYTES);
+		m_buffer.put(STRING_RECORD);
+		putVarInt(next);
+		putString(value);
+		return next;
+	}
+
+	private void putReference(int id, String value) throws IOException {
+		ensure(MAX_VARINT_BYTES);
+		putVarInt(id);
+		if (id == INLINE_REFERENCE) {
+			putString(value);
+		}
+	}
+
+	private void putArgument(Object arg) throws IOException {
+		ensure(1 + MAX_VARINT_BYTES);
+		if (arg == null) {
+			m_buffer.put(NULL_ARGUMENT);
+		} else if (arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+			m_buffer.put(INT_ARGUMENT);
+			putSignedVarLong(((Number) arg).intValue());
+		} else if (arg instanceof Long value) {
+			m_buffer.put(LONG_ARGUMENT);
+			putSignedVarLong(value);
+		} else if (arg instanceof Float value) {
+			m_buffer.put(FLOAT_ARGUMENT);
+			m_buffer.putFloat(value);
+		} else if (arg instanceof Double value) {
+			m_buffer.put(DOUBLE_ARGUMENT);
+			m_buffer.putDouble(value);
+		} else if (arg instanceof Boolean value) {
+			m_buffer.put(value ? TRUE_ARGUMENT : FALSE_ARGUMENT);
+		} else if (arg instanceof Character value) {
+			m_buffer.put(CHAR_ARGUMENT);
+			putVarInt(value);
+		} else {
+			m_buffer.put(STRING_ARGUMENT);
+			putString(String.valueOf(arg));
+		}
+	}
+
+	private void putString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		ensure(MAX_VARINT_BYTES);
+		putVarInt(bytes.length);
+		if (bytes.length <= m_buffer.remaining()) {
+			m_buffer.put(bytes);
+			return;
+		}
+		flush();
+		if (bytes.length <= m_buffer.remaining()) {
+			m_buffer.put(bytes);
+			return;
+		}
+		ByteBuffer wrapped = ByteBuffer.wrap(bytes);
+		while (wrapped.hasRemaining()) {
+			m_channel.write(wrapped);
+		}
+	}
+
+	private void putVarInt(int value) {
+		while ((value & ~0x7F) != 0) {
+			m_buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		m_buffer.put((byte) value);
+	}
+
+	private void putSignedVarLong(long value) {
+		long zigzag = (value << 1) ^ (value >> 63);
+		while ((zigzag & ~0x7FL) != 0) {
+			m_buffer.put((byte) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		m_buffer.put((byte) zigzag);
+	}
+
+	private void ensure(int bytes) throws IOException {
+		if (m_buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.starworks.kronos.logging.appender;
+
+import static com.starworks.kronos.logging.appender.BinaryFileAppender.*;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.starworks.kronos.logging.Layout;
+
+/**
+ * Renders files written by {@link BinaryFileAppender} with a {@link Layout},
+ * producing the same text a text appender would have written. Run it from the
+ * command line with the file and, optionally, a layout name or pattern:
+ *
+ * <pre>
+ * java com.starworks.kronos.logging.appender.BinaryLogDecoder logs/server.klog [layout]
+ * </pre>
+ *
+ * @author Ethan Temprovich
+ */
+public final class BinaryLogDecoder implements Closeable {
+
+	private static final String NEW_LINE = System.lineSeparator();
+
+	private final DataInputStream m_in;
+	private final List<String> m_dictionary;
+	private long m_lastTimestamp;
+
+	public BinaryLogDecoder(InputStream in) {
+		this.m_in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+		this.m_dictionary = new ArrayList<String>();
+		this.m_lastTimestamp = 0;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: BinaryLogDecoder <file" + EXTENSION + "> [layout]");
+			System.exit(1);
+		}
+		Layout layout = Layout.of(args.length > 1 ? args[1] : "full");
+		try (BinaryLogDecoder decoder = new BinaryLogDecoder(Files.newInputStream(Paths.get(args[0])));
+				Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16)) {
+			decoder.decode(layout, out);
+		}
+	}
+
+	/**
+	 * Renders every event in the stream to {@code out}, one per line, followed
+	 * by its stack trace if it had one.
+	 *
+	 * @return the number of events decoded
+	 */
+	public long decode(Layout layout, Appendable out) throws IOException {
+		StringBuilder sb = new StringBuilder(1 << 9);
+		long count = 0;
+		while (next(layout, sb)) {
+			out.append(sb);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Reads up to and including the next event and renders it into {@code sb},
+	 * replacing its contents.
+	 *
+	 * @return {@code false} once the end of the stream is reached
+	 */
+	public boolean next(Layout layout, StringBuilder sb) throws IOException {
+		for (;;) {
+			int tag = m_in.read();
+			switch (tag) {
+			case -1 -> {
+				return false;
+			}
+			case HEADER_RECORD -> readHeader();
+			case STRING_RECORD -> readString();
+			case EVENT_RECORD -> {
+				readEvent(layout, sb);
+				return true;
+			}
+			default -> throw new IOException("Corrupt binary log: unknown record tag " + tag);
+			}
+		}
+	}
+
+	private void readHeader() throws IOException {
+		int magic = m_in.readInt();
+		if (magic != MAGIC) {
+			throw new IOException("Corrupt binary log: bad magic 0x" + Integer.toHexString(magic));
+		}
+		int version = readVarInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported binary log version " + version);
+		}
+		m_dictionary.clear();
+		m_lastTimestamp = 0;
+	}
+
+	private void readString() throws IOException {
+		int id = readVarInt();
+		String value = readUtf8();
+		if (id != m_dictionary.size() + FIRST_DICTIONARY_ID) {
+			throw new IOException("Corrupt binary log: dictionary id " + id + " out of sequence");
+		}
+		m_dictionary.add(value);
+	}
+
+	private void readEvent(Layout layout, StringBuilder sb) throws IOException {
+		long timestamp = m_lastTimestamp + readSignedVarLong();
+		m_lastTimestamp = timestamp;
+		String level = readReference();
+		String name = readReference();
+		String type = readReference();
+		String thread = readReference();
+		String method = readReference();
+		int line = (int) readSignedVarLong();
+		String template = readReference();
+		int argCount = readVarInt();
+		Object[] args = null;
+		if (argCount > 0) {
+			args = new Object[argCount - 1];
+			for (int i = 0; i < args.length; i++) {
+				args[i] = readArgument();
+			}
+		}
+		sb.setLength(0);
+		layout.format(sb, timestamp, name, level, type, template, args, line, method, thread);
+		sb.append(NEW_LINE);
+		int frameCount = readVarInt() - 1;
+		if (frameCount == 0) {
+			// a throwable without frames still prints an empty trace line in the text log
+			sb.append(NEW_LINE);
+		}
+		for (int i = 0; i < frameCount; i++) {
+			sb.append("\tat\s");
+			sb.append(readReference());
+			sb.append(NEW_LINE);
+		}
+	}
+
+	private Object readArgument() throws IOException {
+		int tag = m_in.readByte();
+		return switch (tag) {
+		case NULL_ARGUMENT -> null;
+		case INT_ARGUMENT -> (int) readSignedVarLong();
+		case LONG_ARGUMENT -> readSignedVarLong();
+		case FLOAT_ARGUMENT -> m_in.readFloat();
+		case DOUBLE_ARGUMENT -> m_in.readDouble();
+		case TRUE_ARGUMENT -> Boolean.TRUE;
+		case FALSE_ARGUMENT -> Boolean.FALSE;
+		case CHAR_ARGUMENT -> (char) readVarInt();
+		case STRING_ARGUMENT -> readUtf8();
+		default -> throw new IOException("Corrupt binary log: unknown argument tag " + tag);
+		};
+	}
+
+	private String readReference() throws IOException {
+		int id = readVarInt();
+		if (id == NULL_REFERENCE) {
+			return null;
+		}
+		if (id == INLINE_REFERENCE) {
+			return readUtf8();
+		}
+		int index = id - FIRST_DICTIONARY_ID;
+		if (index >= m_dictionary.size()) {
+			throw new IOException("Corrupt binary log: undefined dictionary id " + id);
+		}
+		return m_dictionary.get(index);
+	}
+
+	private String readUtf8() throws IOException {
+		int length = readVarInt();
+		byte[] bytes = new byte[length];
+		m_in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = m_in.read();
+			if (b == -1) {
+				throw new EOFException();
+			}
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Corrupt binary log: varint too long");
+	}
+
+	private long readSignedVarLong() throws IOException {
+		long zigzag = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = m_in.read();
+			if (b == -1) {
+				throw new EOFException();
+			}
+			zigzag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+		throw new IOException("Corrupt binary log: varint too long");
+	}
+
+	@Override
+	public void close() throws IOException {
+		m_in.close();
+	}
+}
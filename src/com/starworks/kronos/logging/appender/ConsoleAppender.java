@@ -22,6 +22,11 @@ public final class ConsoleAppender implements Appender {
 		m_stream.write(m_reusableString.getBytes());
 	}
 	
+	@Override
+	public void flush() throws IOException {
+		m_stream.flush();
+	}
+
 	public OutputStream getOutputStream() {
 		return m_stream;
 	}
@@ -0,0 +1,19 @@
+package com.starworks.kronos.logging.appender;
+
+import java.io.IOException;
+
+/**
+ * An {@link Appender} which is handed each event before it is formatted, for
+ * sinks that store the raw template and arguments instead of text. Loggers skip
+ * formatting entirely when every appender they hold is an event appender.
+ *
+ * @author Ethan Temprovich
+ */
+public interface EventAppender extends Appender {
+
+	void append(Event event) throws IOException;
+
+	@Override
+	default void append(Message message) throws IOException {
+	}
+}
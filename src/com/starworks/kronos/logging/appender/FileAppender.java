@@ -1,67 +1,184 @@
 package com.starworks.kronos.logging.appender;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.starworks.kronos.Configuration;
-import com.starworks.kronos.exception.Exceptions;
-import com.starworks.kronos.exception.KronosRuntimeException;
 import com.starworks.kronos.files.FileHandle;
 import com.starworks.kronos.files.FileSystem;
 
+/**
+ * Appends messages to a file through a single open {@link FileChannel}.
+ * Messages are encoded straight into a direct buffer which is written out when
+ * it fills, when a second has passed since the last write, when the logging
+ * thread goes idle, and on close. A closed appender reopens its channel on the
+ * next append, so an appender shared between loggers survives one of them
+ * closing. An appender whose file could not be opened drops its messages
+ * rather than failing every write.
+ *
+ * @author Ethan Temprovich
+ */
 public sealed class FileAppender implements Appender permits RotatingFileAppender {
 
 	protected static final String s_newLine = System.lineSeparator();
 	protected static final byte[] s_newLineBytes = s_newLine.getBytes();
 
+	private static final int BUFFER_CAPACITY = 1 << 16;
+	private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
 	protected FileHandle m_handle;
 	protected AtomicLong m_lines;
 
-	private String m_reusableString;
+	private final ByteBuffer m_buffer;
+	private final CharsetEncoder m_encoder;
+	private FileChannel m_channel;
+	private long m_written;
+	private long m_lastFlush;
 
 	public FileAppender() {
+		this.m_lines = new AtomicLong(0);
+		this.m_buffer = ByteBuffer.allocateDirect(BUFFER_CAPACITY);
+		this.m_encoder = StandardCharsets.UTF_8.newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.m_channel = null;
+		this.m_written = 0;
+		this.m_lastFlush = System.nanoTime();
 	}
 
 	public FileAppender(String path) {
+		this();
 		String p = path + (path.endsWith(Configuration.logging.extension()) ? "" : Configuration.logging.extension());
 		p = FileSystem.INSTANCE.get(p);
 		try {
 			this.m_handle = FileSystem.INSTANCE.getFileHandle(p, true, true);
+			this.m_written = m_handle.getFile().length();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-		this.m_lines = new AtomicLong(lines(p));
 	}
 
-	protected final long lines(String filename) {
-		Path path = Paths.get(filename);
-		try {
-			return Files.lines(path).count();
-		} catch (IOException e) {
-			e.printStackTrace();
+	@Override
+	public synchronized void append(Message message) throws IOException {
+		if (m_handle == null) {
+			return;
+		}
+		String msg = message.msg();
+		m_lines.addAndGet(encode(msg));
+		if (System.nanoTime() - m_lastFlush >= FLUSH_INTERVAL_NANOS) {
+			flush();
 		}
-		throw new KronosRuntimeException(Exceptions.getMessage("logging.appender.fileAppender.lines"));
+	}
+
+	/**
+	 * Switches this appender to another file, writing out anything still
+	 * buffered for the current one first.
+	 */
+	protected synchronized void open(FileHandle handle) throws IOException {
+		flush();
+		closeChannel();
+		m_handle = handle;
+		m_written = handle.getFile().length();
+		m_lines.set(0);
 	}
 
 	@Override
-	public void append(Message message) throws IOException {
-		m_reusableString = message.msg();
-		m_handle.write(m_reusableString);
-		m_lines.addAndGet(m_reusableString.split(s_newLine).length);
+	public synchronized void flush() throws IOException {
+		m_lastFlush = System.nanoTime();
+		if (m_buffer.position() == 0 || m_handle == null) {
+			m_buffer.clear();
+			return;
+		}
+		m_buffer.flip();
+		FileChannel channel = channel();
+		while (m_buffer.hasRemaining()) {
+			m_written += channel.write(m_buffer);
+		}
+		m_buffer.clear();
 	}
 
 	@Override
-	public void close() throws IOException {
+	public synchronized void close() throws IOException {
+		flush();
+		closeChannel();
+	}
+
+	private int encode(String msg) throws IOException {
+		int lines = 0;
+		int length = msg.length();
+		for (int i = 0; i < length; i++) {
+			char c = msg.charAt(i);
+			if (c >= 0x80) {
+				return lines + encode(msg, i);
+			}
+			if (!m_buffer.hasRemaining()) {
+				flush();
+			}
+			m_buffer.put((byte) c);
+			if (c == '\n') {
+				lines++;
+			}
+		}
+		return lines;
+	}
+
+	private int encode(String msg, int offset) throws IOException {
+		int lines = 0;
+		int length = msg.length();
+		for (int i = offset; i < length; i++) {
+			if (msg.charAt(i) == '\n') {
+				lines++;
+			}
+		}
+		CharBuffer chars = CharBuffer.wrap(msg, offset, length);
+		m_encoder.reset();
+		while (m_encoder.encode(chars, m_buffer, true).isOverflow()) {
+			flush();
+		}
+		while (m_encoder.flush(m_buffer).isOverflow()) {
+			flush();
+		}
+		return lines;
+	}
+
+	private FileChannel channel() throws IOException {
+		if (m_channel == null || !m_channel.isOpen()) {
+			m_channel = FileChannel.open(m_handle.getFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		}
+		return m_channel;
+	}
+
+	private void closeChannel() throws IOException {
+		if (m_channel != null) {
+			m_channel.close();
+			m_channel = null;
+		}
 	}
 
 	public FileHandle getFileHandle() {
 		return m_handle;
 	}
 
+	/**
+	 * @return the number of lines appended since the current file was opened
+	 */
 	public long lines() {
 		return m_lines.get();
 	}
+
+	/**
+	 * @return the size of the current file in bytes, including anything still
+	 *         buffered
+	 */
+	public synchronized long size() {
+		return m_written + m_buffer.position();
+	}
 }
@@ -1,37 +1,48 @@
 package com.starworks.kronos.logging.appender;
 
 import java.io.IOException;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
 
 public final class RotatingDateFileAppender extends RotatingFileAppender {
 
-	private static final DateFormat s_dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-	
-	private Date m_date;
-	
-	public RotatingDateFileAppender(String directory, int maxLines) {
-		super(directory + s_dateFormat.format(new Date()), maxLines);
-		this.m_date = new Date();
+	private static final DateTimeFormatter s_dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+	private static final Pattern s_datePattern = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+
+	private final String m_directory;
+	private long m_nextDay;
+
+	public RotatingDateFileAppender(String directory, long maxBytes, int maxFiles, boolean compress) {
+		super(directory + s_dateFormat.format(LocalDate.now()), maxBytes, maxFiles, compress);
+		this.m_directory = directory;
+		this.m_nextDay = nextDay();
 	}
-	
+
+	/**
+	 * @return {@code true} if the current file is still for today
+	 */
 	public boolean validate() {
-		final Date date = new Date();
-		if (date.after(m_date)) {
-			m_date = date;
-			m_baseName = m_handle.getFileDirectory() + s_dateFormat.format(date);
-			m_currentFileCount.set(0);
-			return false;
-		}
-		return true;
+		return System.currentTimeMillis() < m_nextDay;
 	}
 
 	@Override
-	public void append(Message message) throws IOException {
+	public synchronized void append(Message message) throws IOException {
 		if (!validate()) {
-			rotate();
+			m_nextDay = nextDay();
+			rebase(m_directory + s_dateFormat.format(LocalDate.now()));
 		}
 		super.append(message);
 	}
+
+	@Override
+	protected boolean owns(String stem) {
+		return s_datePattern.matcher(stem).matches();
+	}
+
+	private static long nextDay() {
+		ZoneId zone = ZoneId.systemDefault();
+		return LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+	}
 }
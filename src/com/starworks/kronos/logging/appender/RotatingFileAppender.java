@@ -1,77 +1,267 @@
 package com.starworks.kronos.logging.appender;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
 
 import com.starworks.kronos.Configuration;
 import com.starworks.kronos.files.FileSystem;
 
+/**
+ * A {@link FileAppender} which moves on to a new file, named
+ * {@code base_index.extension}, once the current one reaches a size in bytes.
+ * The directory is scanned once on construction to find where to resume;
+ * afterwards the size is tracked as messages are written. Finished files are
+ * optionally gzipped and the oldest deleted once more than the configured
+ * number remain, both on a background thread so appending never waits on
+ * either.
+ *
+ * @author Ethan Temprovich
+ */
 public sealed class RotatingFileAppender extends FileAppender permits RotatingDateFileAppender {
 
 	private static final String SEPARATOR = "_";
-	
+	private static final String COMPRESSED_EXTENSION = ".gz";
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+	private static final long DEFAULT_MAX_BYTES = 10L << 20;
+
+	private static ExecutorService s_archiver;
+
 	protected String m_baseName;
 	protected String m_extension;
-	protected int m_maxLines;
-	protected AtomicInteger m_currentFileCount;
+	protected long m_maxBytes;
+	protected int m_maxFiles;
+	protected boolean m_compress;
+	protected int m_index;
 
-	public RotatingFileAppender(String path, int maxLines) {
+	private final Path m_directory;
+	private final Deque<Path> m_rotated;
+
+	/**
+	 * @param path     the file path, without the rotation index
+	 * @param maxBytes the size at which to move on to the next file
+	 * @param maxFiles the number of finished files to keep, or {@code 0} to keep
+	 *                 them all
+	 * @param compress whether to gzip finished files
+	 */
+	public RotatingFileAppender(String path, long maxBytes, int maxFiles, boolean compress) {
 		String p = FileSystem.INSTANCE.get(path);
-		this.m_maxLines = maxLines;
+		this.m_maxBytes = maxBytes > 0 ? maxBytes : DEFAULT_MAX_BYTES;
+		this.m_maxFiles = maxFiles;
+		this.m_compress = compress;
 		int idx = p.lastIndexOf('.');
-		if (idx == -1) {
+		if (idx == -1 || idx < p.lastIndexOf('/')) {
 			this.m_baseName = p;
 			this.m_extension = Configuration.logging.extension();
 		} else {
 			this.m_baseName = p.substring(0, idx);
 			this.m_extension = p.substring(idx);
 		}
-		this.m_currentFileCount = new AtomicInteger(countFiles());
+		Path parent = Paths.get(m_baseName).toAbsolutePath().getParent();
+		this.m_directory = parent;
+		this.m_rotated = new ArrayDeque<Path>();
+		this.m_index = 0;
 		try {
-			p = buildName();
-			this.m_handle = FileSystem.INSTANCE.getFileHandle(p, true, true);
-			this.m_lines = new AtomicLong(lines(p));
+			Files.createDirectories(parent);
+			scan();
+			open(FileSystem.INSTANCE.getFileHandle(buildName(), true, true));
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 
-	private final int countFiles() {
-		int count = 0;
-		for (int i = 0; i < Integer.MAX_VALUE; i++) {
-			String path = m_baseName + i + m_extension;
-			if (new File(path).exists()) {
-				count = i;
-			} else {
-				break;
-			}
-		}
-		return count;
-	}
-
 	@Override
-	public void append(Message message) throws IOException {
-		if (m_lines.get() >= m_maxLines) {
-			m_currentFileCount.incrementAndGet();
+	public synchronized void append(Message message) throws IOException {
+		if (size() >= m_maxBytes) {
 			rotate();
 		}
 		super.append(message);
 	}
 
+	/**
+	 * Finishes the current file and opens the next index.
+	 */
 	protected void rotate() throws IOException {
-		String path = buildName();
-		m_handle = FileSystem.INSTANCE.getFileHandle(path, true, true);
-		m_lines.set(lines(path));
-		;
+		Path finished = m_handle.getFile().toPath();
+		m_index++;
+		open(FileSystem.INSTANCE.getFileHandle(buildName(), true, true));
+		retire(finished);
 	}
-	
+
+	/**
+	 * Finishes the current file and starts again from index zero under a new
+	 * base name.
+	 */
+	protected void rebase(String baseName) throws IOException {
+		Path finished = m_handle.getFile().toPath();
+		m_baseName = baseName;
+		m_index = 0;
+		open(FileSystem.INSTANCE.getFileHandle(buildName(), true, true));
+		retire(finished);
+	}
+
+	/**
+	 * Whether a file stem found in the log directory belongs to this appender;
+	 * only files that do are resumed, compressed and counted against the
+	 * retention limit.
+	 */
+	protected boolean owns(String stem) {
+		return stem.equals(Paths.get(m_baseName).getFileName().toString());
+	}
+
 	protected final String buildName() {
 		StringBuilder sb = new StringBuilder(m_baseName);
 		sb.append(SEPARATOR);
-		sb.append(m_currentFileCount);
+		sb.append(m_index);
 		sb.append(m_extension);
 		return sb.toString();
 	}
+
+	/**
+	 * Lists the directory once, resuming from the highest index of the current
+	 * base name and queueing every other file for compression and retention.
+	 */
+	private void scan() throws IOException {
+		String stem = Paths.get(m_baseName).getFileName().toString();
+		List<Rotated> found = new ArrayList<Rotated>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(m_directory)) {
+			for (Path file : stream) {
+				String name = file.getFileName().toString();
+				if (name.endsWith(TEMPORARY_EXTENSION)) {
+					Rotated rotated = parse(name.substring(0, name.length() - TEMPORARY_EXTENSION.length()), file);
+					if (rotated != null) {
+						Files.deleteIfExists(file);
+					}
+					continue;
+				}
+				Rotated rotated = parse(name, file);
+				if (rotated != null) {
+					found.add(rotated);
+				}
+			}
+		}
+		found.sort(Comparator.comparing(Rotated::stem).thenComparingInt(Rotated::index).thenComparing(Rotated::compressed));
+		for (Rotated rotated : found) {
+			if (rotated.stem().equals(stem)) {
+				m_index = Math.max(m_index, rotated.compressed() ? rotated.index() + 1 : rotated.index());
+			}
+		}
+		String resumed = stem + SEPARATOR + m_index + m_extension;
+		for (Rotated rotated : found) {
+			if (!rotated.path().getFileName().toString().equals(resumed)) {
+				m_rotated.addLast(rotated.path());
+				if (m_compress && !rotated.compressed()) {
+					archive(() -> compress(rotated.path()));
+				}
+			}
+		}
+		trim();
+	}
+
+	private Rotated parse(String name, Path file) {
+		boolean compressed = name.endsWith(COMPRESSED_EXTENSION);
+		if (compressed) {
+			name = name.substring(0, name.length() - COMPRESSED_EXTENSION.length());
+		}
+		if (!name.endsWith(m_extension)) {
+			return null;
+		}
+		name = name.substring(0, name.length() - m_extension.length());
+		int separator = name.lastIndexOf(SEPARATOR);
+		if (separator <= 0 || separator == name.length() - 1) {
+			return null;
+		}
+		int index = 0;
+		for (int i = separator + 1; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c < '0' || c > '9' || index > (Integer.MAX_VALUE - 9) / 10) {
+				return null;
+			}
+			index = index * 10 + (c - '0');
+		}
+		String stem = name.substring(0, separator);
+		if (!owns(stem)) {
+			return null;
+		}
+		return new Rotated(stem, index, file, compressed);
+	}
+
+	private void retire(Path finished) {
+		m_rotated.addLast(finished);
+		if (m_compress) {
+			archive(() -> compress(finished));
+		}
+		trim();
+	}
+
+	private void trim() {
+		if (m_maxFiles <= 0) {
+			return;
+		}
+		while (m_rotated.size() > m_maxFiles) {
+			Path oldest = m_rotated.pollFirst();
+			archive(() -> delete(oldest));
+		}
+	}
+
+	private static void compress(Path file) {
+		if (file.getFileName().toString().endsWith(COMPRESSED_EXTENSION) || !Files.exists(file)) {
+			return;
+		}
+		Path target = file.resolveSibling(file.getFileName() + COMPRESSED_EXTENSION);
+		Path temporary = file.resolveSibling(target.getFileName() + TEMPORARY_EXTENSION);
+		try {
+			try (InputStream in = Files.newInputStream(file); OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+				in.transferTo(out);
+			}
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			Files.delete(file);
+		} catch (IOException e) {
+			System.err.println("Unable to compress rotated log file " + file + ": " + e);
+			try {
+				Files.deleteIfExists(temporary);
+			} catch (IOException ignored) {
+			}
+		}
+	}
+
+	private static void delete(Path file) {
+		String name = file.getFileName().toString();
+		try {
+			Files.deleteIfExists(file);
+			if (!name.endsWith(COMPRESSED_EXTENSION)) {
+				Files.deleteIfExists(file.resolveSibling(name + COMPRESSED_EXTENSION));
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to delete rotated log file " + file + ": " + e);
+		}
+	}
+
+	private static synchronized void archive(Runnable task) {
+		if (s_archiver == null) {
+			s_archiver = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "LogArchiver");
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			});
+		}
+		s_archiver.execute(task);
+	}
+
+	private static final record Rotated(String stem, int index, Path path, boolean compressed) {
+	}
 }
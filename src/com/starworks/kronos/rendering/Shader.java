@@ -6,6 +6,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -16,6 +19,7 @@ import org.lwjgl.opengl.GL32;
 
 import com.starworks.kronos.files.FileHandle;
 import com.starworks.kronos.files.FileSystem;
+import com.starworks.kronos.files.FileWatcher;
 import com.starworks.kronos.logging.Logger;
 import com.starworks.kronos.maths.Matrix2f;
 import com.starworks.kronos.maths.Matrix3f;
@@ -24,6 +28,14 @@ import com.starworks.kronos.maths.Vector2f;
 import com.starworks.kronos.maths.Vector3f;
 import com.starworks.kronos.maths.Vector4f;
 
+/**
+ * A GLSL program read from a single source file whose stages are marked with
+ * {@code #type vertex}, {@code #type fragment} and {@code #type geometry}.
+ * Shaders loaded from loose files are watched for changes, and
+ * {@link #reload()} rebuilds a changed shader on the rendering thread.
+ *
+ * @author Ethan Temprovich
+ */
 public final class Shader implements Closeable {
 	private final Logger LOGGER = Logger.getLogger(Shader.class);
 
@@ -50,11 +62,14 @@ public final class Shader implements Closeable {
 	private int m_programID;
 
 	private final FileHandle m_fileHandle;
-	private final String m_vertexSrc;
-	private final String m_fragmentSrc;
-	private final String m_geometrySrc;
+	private final String m_filepath;
+	private final FileWatcher.Subscription m_subscription;
+	private String m_vertexSrc;
+	private String m_fragmentSrc;
+	private String m_geometrySrc;
 
 	private State m_state;
+	private volatile boolean m_modified;
 
 	private final Map<String, Integer> m_uniformLocations;
 
@@ -69,10 +84,11 @@ public final class Shader implements Closeable {
 			LOGGER.error("Error opening shader file", e);
 		}
 		this.m_fileHandle = file;
+		this.m_filepath = filepath;
 
 		String src;
 		try {
-			src = readShaderSource();
+			src = readShaderSource(filepath);
 		} catch (IOException e) {
 			throw new RuntimeException("Error: Could not open file for shader: '" + filepath + "'", e);
 		}
@@ -87,12 +103,88 @@ public final class Shader implements Closeable {
 		}
 		this.m_state = State.UNINITIALIZED;
 		this.m_uniformLocations = new HashMap<String, Integer>();
+		this.m_subscription = watch(filepath);
 	}
 
-	private String readShaderSource() throws IOException {
+	private FileWatcher.Subscription watch(String filepath) {
+		Path path = Paths.get(filepath);
+		if (!Files.isRegularFile(path)) {
+			return null;
+		}
+		try {
+			return FileWatcher.INSTANCE.watch(path, (changed, change) -> {
+				if (change != FileWatcher.Change.DELETED) {
+					m_modified = true;
+				}
+			});
+		} catch (IOException e) {
+			LOGGER.warn("Unable to watch shader '{0}' for changes", filepath);
+			return null;
+		}
+	}
+
+	/**
+	 * Rebuilds the shader if its source file changed since it was loaded or
+	 * last reloaded. Must be called on the rendering thread, typically once a
+	 * frame. If the new source fails to compile or link, the previous program
+	 * is kept.
+	 *
+	 * @return whether the shader was rebuilt
+	 */
+	public boolean reload() {
+		if (!m_modified || !m_state.isCanonical()) {
+			return false;
+		}
+		m_modified = false;
+
+		Map<Type, String> shaderSources;
+		try {
+			shaderSources = preprocess(readShaderSource(m_filepath));
+		} catch (IOException | RuntimeException e) {
+			LOGGER.error("Unable to reload shader '{0}'", e, m_filepath);
+			return false;
+		}
+		if (shaderSources.get(Type.VERTEX) == null || shaderSources.get(Type.FRAGMENT) == null) {
+			LOGGER.error("Unable to reload shader '{0}': it must contain both vertex and fragment shaders", m_filepath);
+			return false;
+		}
+
+		String vertexSrc = m_vertexSrc;
+		String fragmentSrc = m_fragmentSrc;
+		String geometrySrc = m_geometrySrc;
+		int programID = m_programID;
+		State state = m_state;
+
+		m_vertexSrc = shaderSources.get(Type.VERTEX);
+		m_fragmentSrc = shaderSources.get(Type.FRAGMENT);
+		m_geometrySrc = shaderSources.get(Type.GEOMETRY);
+		compile();
+		link();
+
+		if (GL20.glGetProgrami(m_programID, GL20.GL_LINK_STATUS) == GL20.GL_FALSE) {
+			GL20.glDeleteProgram(m_programID);
+			m_vertexSrc = vertexSrc;
+			m_fragmentSrc = fragmentSrc;
+			m_geometrySrc = geometrySrc;
+			m_programID = programID;
+			m_state = state;
+			return false;
+		}
+
+		GL20.glDeleteProgram(programID);
+		m_uniformLocations.clear();
+		if (state == State.BOUND) {
+			GL30.glUseProgram(m_programID);
+			m_state = State.BOUND;
+		}
+		LOGGER.info("Reloaded shader '{0}'", m_filepath);
+		return true;
+	}
+
+	private String readShaderSource(String filepath) throws IOException {
 		StringBuilder source = new StringBuilder();
 
-		try (InputStream is = this.m_fileHandle.readStream(); InputStreamReader isr = new InputStreamReader(is); BufferedReader reader = new BufferedReader(isr)) {
+		try (InputStream is = FileSystem.INSTANCE.openAsset(filepath); InputStreamReader isr = new InputStreamReader(is); BufferedReader reader = new BufferedReader(isr)) {
 
 			String line;
 			while ((line = reader.readLine()) != null) {
@@ -246,6 +338,9 @@ public final class Shader implements Closeable {
 
 	@Override
 	public void close() throws IOException {
+		if (m_subscription != null) {
+			m_subscription.cancel();
+		}
 		unlink();
 	}
 	
@@ -0,0 +1,358 @@
+package com.starworks.kronos.resources;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cache of resource bytes bounded by their total size rather than their
+ * count, with W-TinyLFU eviction: new entries go into a small LRU window, and
+ * an entry leaving the window only displaces an entry of the main space if it
+ * has been requested more often, as estimated by a count-min sketch of recent
+ * requests. The main space is a segmented LRU, so entries requested again
+ * after admission are protected from a scan of one-off requests.
+ * <p>
+ * Values may be kept off-heap in direct buffers, which keeps a large cache out
+ * of the garbage collector's way at the cost of a copy on every hit through
+ * {@link #get(String)}; {@link #getBuffer(String)} never copies. Buffers
+ * which are already direct are cached as they are.
+ *
+ * @author Ethan Temprovich
+ */
+public final class ResourceCache {
+
+	private static final int WINDOW_PERCENT = 1;
+	private static final int PROTECTED_PERCENT = 80;
+
+	private final Map<String, Node> m_nodes;
+	private final Node m_window;
+	private final Node m_probation;
+	private final Node m_protected;
+	private final FrequencySketch m_sketch;
+	private final long m_maxBytes;
+	private final long m_maxWindowBytes;
+	private final long m_maxProtectedBytes;
+	private final boolean m_offHeap;
+	private long m_windowBytes;
+	private long m_probationBytes;
+	private long m_protectedBytes;
+	private long m_hits;
+	private long m_misses;
+	private long m_evictions;
+	private long m_evictedBytes;
+
+	/**
+	 * @param maxBytes the most bytes of values to keep
+	 * @param offHeap  whether to keep values in direct buffers
+	 */
+	public ResourceCache(long maxBytes, boolean offHeap) {
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Cache size cannot be negative: " + maxBytes);
+		}
+		this.m_nodes = new HashMap<String, Node>();
+		this.m_window = Node.sentinel();
+		this.m_probation = Node.sentinel();
+		this.m_protected = Node.sentinel();
+		this.m_sketch = new FrequencySketch(maxBytes);
+		this.m_maxBytes = maxBytes;
+		this.m_maxWindowBytes = Math.max(1, maxBytes * WINDOW_PERCENT / 100);
+		this.m_maxProtectedBytes = (maxBytes - m_maxWindowBytes) * PROTECTED_PERCENT / 100;
+		this.m_offHeap = offHeap;
+	}
+
+	/**
+	 * @return a copy of the cached bytes if they are held in a buffer, otherwise
+	 *         the cached array itself, or {@code null} if {@code key} is not
+	 *         cached
+	 */
+	public byte[] get(String key) {
+		Object value = lookup(key);
+		if (value instanceof ByteBuffer buffer) {
+			byte[] copy = new byte[buffer.remaining()];
+			buffer.duplicate().get(copy);
+			return copy;
+		}
+		return (byte[]) value;
+	}
+
+	/**
+	 * @return a read-only view of the cached bytes, or {@code null} if
+	 *         {@code key} is not cached
+	 */
+	public ByteBuffer getBuffer(String key) {
+		Object value = lookup(key);
+		if (value instanceof ByteBuffer buffer) {
+			return buffer.asReadOnlyBuffer();
+		}
+		return value == null ? null : ByteBuffer.wrap((byte[]) value).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Caches {@code data} under {@code key}, evicting as needed. Values larger
+	 * than the whole cache are not cached. Unless the cache is off-heap the
+	 * array is kept as it is, so it must not be modified afterwards.
+	 */
+	public void put(String key, byte[] data) {
+		insert(key, m_offHeap ? ByteBuffer.allocateDirect(data.length).put(data).flip() : data, data.length);
+	}
+
+	/**
+	 * Caches the remaining bytes of {@code data} under {@code key}. The buffer
+	 * is kept as it is, without copying, if it is direct or if the cache is
+	 * on-heap, so its contents must not be modified afterwards.
+	 */
+	public void put(String key, ByteBuffer data) {
+		int length = data.remaining();
+		if (m_offHeap && !data.isDirect()) {
+			insert(key, ByteBuffer.allocateDirect(length).put(data.duplicate()).flip(), length);
+		} else {
+			insert(key, data.slice(), length);
+		}
+	}
+
+	private synchronized void insert(String key, Object value, int weight) {
+		if (weight > m_maxBytes) {
+			remove(key);
+			return;
+		}
+		Node node = m_nodes.get(key);
+		if (node != null) {
+			resize(node, weight);
+			node.m_value = value;
+		} else {
+			node = new Node(key, value, weight);
+			m_nodes.put(key, node);
+			node.m_segment = m_window;
+			node.linkBefore(m_window);
+			m_windowBytes += node.m_weight;
+		}
+		evict();
+	}
+
+	public synchronized boolean remove(String key) {
+		Node node = m_nodes.remove(key);
+		if (node == null) {
+			return false;
+		}
+		unlink(node);
+		return true;
+	}
+
+	public synchronized void clear() {
+		m_nodes.clear();
+		m_window.m_next = m_window.m_previous = m_window;
+		m_probation.m_next = m_probation.m_previous = m_probation;
+		m_protected.m_next = m_protected.m_previous = m_protected;
+		m_windowBytes = m_probationBytes = m_protectedBytes = 0;
+	}
+
+	public synchronized Statistics getStatistics() {
+		return new Statistics(m_hits, m_misses, m_evictions, m_evictedBytes, m_windowBytes + m_probationBytes + m_protectedBytes, m_maxBytes, m_nodes.size());
+	}
+
+	public long getMaxBytes() {
+		return m_maxBytes;
+	}
+
+	public boolean isOffHeap() {
+		return m_offHeap;
+	}
+
+	private synchronized Object lookup(String key) {
+		m_sketch.increment(key.hashCode());
+		Node node = m_nodes.get(key);
+		if (node == null) {
+			m_misses++;
+			return null;
+		}
+		m_hits++;
+		if (node.m_segment == m_probation) {
+			node.unlink();
+			m_probationBytes -= node.m_weight;
+			node.m_segment = m_protected;
+			node.linkBefore(m_protected);
+			m_protectedBytes += node.m_weight;
+			while (m_protectedBytes > m_maxProtectedBytes && m_protected.m_next != node) {
+				Node demoted = m_protected.m_next;
+				demoted.unlink();
+				m_protectedBytes -= demoted.m_weight;
+				demoted.m_segment = m_probation;
+				demoted.linkBefore(m_probation);
+				m_probationBytes += demoted.m_weight;
+			}
+		} else {
+			node.unlink();
+			node.linkBefore(node.m_segment);
+		}
+		return node.m_value;
+	}
+
+	/**
+	 * Moves entries from the window into probation, then evicts until the cache
+	 * fits, letting each entry which just left the window compete with the
+	 * least recently used entry of the main space.
+	 */
+	private void evict() {
+		Node candidate = null;
+		while (m_windowBytes > m_maxWindowBytes && m_window.m_next != m_window) {
+			candidate = m_window.m_next;
+			candidate.unlink();
+			m_windowBytes -= candidate.m_weight;
+			candidate.m_segment = m_probation;
+			candidate.linkBefore(m_probation);
+			m_probationBytes += candidate.m_weight;
+		}
+		while (m_windowBytes + m_probationBytes + m_protectedBytes > m_maxBytes) {
+			Node victim = first(m_probation);
+			if (victim == null) {
+				victim = first(m_protected);
+			}
+			if (victim == null) {
+				victim = first(m_window);
+			}
+			if (candidate != null && candidate != victim && candidate.m_segment == m_probation) {
+				if (m_sketch.frequency(candidate.m_key.hashCode()) <= m_sketch.frequency(victim.m_key.hashCode())) {
+					victim = candidate;
+					candidate = null;
+				}
+			}
+			if (victim == candidate) {
+				candidate = null;
+			}
+			m_evictions++;
+			m_evictedBytes += victim.m_weight;
+			m_nodes.remove(victim.m_key);
+			unlink(victim);
+		}
+	}
+
+	private void resize(Node node, int weight) {
+		int delta = weight - node.m_weight;
+		node.m_weight = weight;
+		if (node.m_segment == m_window) {
+			m_windowBytes += delta;
+		} else if (node.m_segment == m_probation) {
+			m_probationBytes += delta;
+		} else {
+			m_protectedBytes += delta;
+		}
+	}
+
+	private void unlink(Node node) {
+		node.unlink();
+		resize(node, 0);
+	}
+
+	private static Node first(Node segment) {
+		return segment.m_next == segment ? null : segment.m_next;
+	}
+
+	/**
+	 * @param size     the bytes currently cached
+	 * @param maxBytes the cache's budget
+	 */
+	public static final record Statistics(long hits, long misses, long evictions, long evictedBytes, long size, long maxBytes, int count) {
+
+		public double hitRate() {
+			long requests = hits + misses;
+			return requests == 0 ? 1.0 : (double) hits / (double) requests;
+		}
+	}
+
+	private static final class Node {
+
+		final String m_key;
+		Object m_value;
+		int m_weight;
+		Node m_segment;
+		Node m_previous;
+		Node m_next;
+
+		Node(String key, Object value, int weight) {
+			this.m_key = key;
+			this.m_value = value;
+			this.m_weight = weight;
+		}
+
+		static Node sentinel() {
+			Node node = new Node(null, null, 0);
+			node.m_previous = node;
+			node.m_next = node;
+			return node;
+		}
+
+		void linkBefore(Node next) {
+			m_next = next;
+			m_previous = next.m_previous;
+			m_previous.m_next = this;
+			next.m_previous = this;
+		}
+
+		void unlink() {
+			m_previous.m_next = m_next;
+			m_next.m_previous = m_previous;
+			m_previous = null;
+			m_next = null;
+		}
+	}
+
+	/**
+	 * A count-min sketch of four rows of 4 bit counters packed into longs.
+	 * Every counter is halved once the number of increments reaches ten times
+	 * the number of counters, so the estimates follow recent popularity.
+	 */
+	private static final class FrequencySketch {
+
+		private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+		private static final long RESET_MASK = 0x7777777777777777L;
+		private static final int AVERAGE_ENTRY_BYTES = 1 << 14;
+
+		private final long[] m_table;
+		private final int m_mask;
+		private final int m_sampleSize;
+		private int m_size;
+
+		FrequencySketch(long maxBytes) {
+			long entries = Math.max(64, Math.min(1 << 24, maxBytes / AVERAGE_ENTRY_BYTES));
+			int length = Integer.highestOneBit((int) entries - 1) << 1;
+			this.m_table = new long[length];
+			this.m_mask = length - 1;
+			this.m_sampleSize = 10 * length * 16;
+			this.m_size = 0;
+		}
+
+		int frequency(int hash) {
+			int frequency = Integer.MAX_VALUE;
+			for (int row = 0; row < SEEDS.length; row++) {
+				long h = mix(hash, row);
+				int shift = (int) (h >>> 60) << 2;
+				frequency = Math.min(frequency, (int) ((m_table[(int) h & m_mask] >>> shift) & 0xF));
+			}
+			return frequency;
+		}
+
+		void increment(int hash) {
+			boolean added = false;
+			for (int row = 0; row < SEEDS.length; row++) {
+				long h = mix(hash, row);
+				int index = (int) h & m_mask;
+				int shift = (int) (h >>> 60) << 2;
+				if (((m_table[index] >>> shift) & 0xF) != 0xF) {
+					m_table[index] += 1L << shift;
+					added = true;
+				}
+			}
+			if (added && ++m_size >= m_sampleSize) {
+				for (int i = 0; i < m_table.length; i++) {
+					m_table[i] = (m_table[i] >>> 1) & RESET_MASK;
+				}
+				m_size >>>= 1;
+			}
+		}
+
+		private static long mix(int hash, int row) {
+			long h = (hash + SEEDS[row]) * SEEDS[(row + 1) & 3];
+			return h ^ (h >>> 32);
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.starworks.kronos.resources;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Turns the raw bytes of a resource into the object the caller wants. Decoders
+ * run on the resource manager's decode threads, never on the thread which
+ * requested the resource.
+ * <p>
+ * The data is a read-only buffer, possibly direct, which is shared with the
+ * resource cache, so a decoder should read what it needs rather than hold on
+ * to it.
+ *
+ * @author Ethan Temprovich
+ */
+@FunctionalInterface
+public interface ResourceDecoder<T> {
+
+	public T decode(String resourcePath, ByteBuffer data) throws IOException;
+}
@@ -0,0 +1,280 @@
+package com.starworks.kronos.resources;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.starworks.kronos.logging.Logger;
+import com.starworks.kronos.toolkit.crypto.Hash;
+
+/**
+ * Remembers, across runs, what was downloaded into the local resources
+ * directory: each file's size, modification time and content hash, and the
+ * ETag and Last-Modified validators the server sent with it. A file whose size
+ * and modification time still match its entry is trusted without being read;
+ * only a file which changed is hashed again, and if its contents no longer
+ * match, its validators are dropped so it is downloaded afresh rather than
+ * revalidated.
+ * <p>
+ * Lookups never lock: a changed file is hashed by the thread which asked, and
+ * its entry is then replaced only if no other thread replaced it meanwhile.
+ * The index is a small binary file in the resources directory; changes mark
+ * it dirty and it is rewritten, through a temporary file, by a task handed to
+ * the executor given on loading, so a burst of changes costs one write.
+ * Contents are hashed in
+ * fixed size chunks by a {@link Hasher}, so a file of any size is hashed as
+ * it streams past, in a chunk each thread reuses.
+ *
+ * @author Ethan Temprovich
+ */
+final class ResourceIndex {
+
+	private static final Logger LOGGER = Logger.getLogger(ResourceIndex.class);
+
+	static final String FILE_NAME = ".index";
+
+	private static final int MAGIC = 0x4B524958;
+	private static final int VERSION = 2;
+
+	private final Path m_directory;
+	private final Path m_file;
+	private final Map<String, Entry> m_entries;
+	private final Executor m_saver;
+	private final AtomicBoolean m_dirty;
+
+	private ResourceIndex(Path directory, Executor saver) {
+		this.m_directory = directory;
+		this.m_file = directory.resolve(FILE_NAME);
+		this.m_entries = new ConcurrentHashMap<String, Entry>();
+		this.m_saver = saver;
+		this.m_dirty = new AtomicBoolean(false);
+	}
+
+	/**
+	 * Reads the index of {@code directory}, starting empty if there is none or
+	 * it cannot be read.
+	 *
+	 * @param saver runs the task which writes the index after it changed
+	 */
+	static ResourceIndex load(Path directory, Executor saver) {
+		ResourceIndex index = new ResourceIndex(directory, saver);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(index.m_file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				LOGGER.warn("Ignoring resource index '{0}' written in an unknown format", index.m_file);
+				return index;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String path = in.readUTF();
+				long size = in.readLong();
+				long modified = in.readLong();
+				long hash = in.readLong();
+				String etag = in.readBoolean() ? in.readUTF() : null;
+				String lastModified = in.readBoolean() ? in.readUTF() : null;
+				index.m_entries.put(path, new Entry(size, modified, hash, etag, lastModified));
+			}
+		} catch (NoSuchFileException e) {
+			return index;
+		} catch (IOException e) {
+			LOGGER.warn("Unable to read resource index '{0}', every local resource will be downloaded again", e, index.m_file);
+			index.m_entries.clear();
+		}
+		return index;
+	}
+
+	boolean contains(String resourcePath) {
+		return m_entries.containsKey(resourcePath);
+	}
+
+	/**
+	 * Returns the entry of a resource if its local file is known and unchanged,
+	 * hashing the file again only if its size or modification time differ from
+	 * the entry. Entries of missing files are forgotten.
+	 */
+	Entry verify(String resourcePath) {
+		Entry entry = m_entries.get(resourcePath);
+		if (entry == null) {
+			return null;
+		}
+		Path file = m_directory.resolve(resourcePath);
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			long modified = attributes.lastModifiedTime().toMillis();
+			if (attributes.size() == entry.size() && modified == entry.modified()) {
+				return entry;
+			}
+			if (attributes.size() == entry.size() && hash(file) == entry.hash()) {
+				Entry updated = new Entry(entry.size(), modified, entry.hash(), entry.etag(), entry.lastModified());
+				if (m_entries.replace(resourcePath, entry, updated)) {
+					changed();
+					return updated;
+				}
+				return m_entries.get(resourcePath);
+			}
+		} catch (NoSuchFileException e) {
+			LOGGER.debug("Local resource '{0}' was deleted, forgetting it", file);
+		} catch (IOException e) {
+			LOGGER.warn("Unable to verify local resource '{0}', it will be downloaded again", e, file);
+		}
+		if (m_entries.remove(resourcePath, entry)) {
+			changed();
+		}
+		return null;
+	}
+
+	/**
+	 * Records the file just written for {@code resourcePath} and the validators
+	 * it was served with.
+	 */
+	void record(String resourcePath, long size, long hash, String etag, String lastModified) {
+		try {
+			long modified = Files.getLastModifiedTime(m_directory.resolve(resourcePath)).toMillis();
+			m_entries.put(resourcePath, new Entry(size, modified, hash, etag, lastModified));
+		} catch (IOException e) {
+			LOGGER.warn("Unable to record local resource '{0}'", e, resourcePath);
+			m_entries.remove(resourcePath);
+		}
+		changed();
+	}
+
+	/**
+	 * Marks the index dirty, scheduling a save unless one is already pending.
+	 */
+	private void changed() {
+		if (m_dirty.compareAndSet(false, true)) {
+			m_saver.execute(this::save);
+		}
+	}
+
+	/**
+	 * Writes the index if it changed since it was last written. Entries changed
+	 * while it is being written mark it dirty again and schedule another save.
+	 */
+	synchronized void save() {
+		if (!m_dirty.getAndSet(false)) {
+			return;
+		}
+		Map<String, Entry> entries = new HashMap<String, Entry>(m_entries);
+		Path temporary = m_file.resolveSibling(FILE_NAME + ".tmp");
+		try {
+			Files.createDirectories(m_directory);
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Entry> e : entries.entrySet()) {
+					Entry entry = e.getValue();
+					out.writeUTF(e.getKey());
+					out.writeLong(entry.size());
+					out.writeLong(entry.modified());
+					out.writeLong(entry.hash());
+					writeOptional(out, entry.etag());
+					writeOptional(out, entry.lastModified());
+				}
+			}
+			Files.move(temporary, m_file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.error("Unable to save resource index '{0}'", e, m_file);
+		}
+	}
+
+	private static void writeOptional(DataOutputStream out, String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static long hash(Path file) throws IOException {
+		Hasher hasher = new Hasher();
+		try (InputStream in = Files.newInputStream(file)) {
+			while (hasher.read(in) != null) {
+			}
+		}
+		return hasher.finish();
+	}
+
+	/**
+	 * Hashes a stream of bytes by taking the MurmurHash3 of each
+	 * {@value #CHUNK_SIZE} byte chunk and folding the chunk hashes together
+	 * with the total length.
+	 * <p>
+	 * Bytes are read straight into the chunk, which belongs to the thread and
+	 * is reused by every hasher it creates, so hashing allocates nothing
+	 * however many files are hashed. A thread must therefore finish one hasher
+	 * before it creates the next.
+	 */
+	static final class Hasher {
+
+		static final int CHUNK_SIZE = 1 << 20;
+
+		private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+		private static final ThreadLocal<ByteBuffer> s_chunks = ThreadLocal.withInitial(() -> ByteBuffer.allocate(CHUNK_SIZE));
+
+		private final ByteBuffer m_view;
+		private final byte[] m_chunk;
+		private int m_position;
+		private long m_length;
+		private long m_hash;
+
+		Hasher() {
+			this.m_view = s_chunks.get();
+			this.m_chunk = m_view.array();
+			this.m_position = 0;
+			this.m_length = 0;
+			this.m_hash = 0;
+		}
+
+		/**
+		 * Reads the next bytes of {@code in} and hashes them.
+		 *
+		 * @return the bytes read, valid until the next call, or {@code null} at
+		 *         the end of the stream
+		 */
+		ByteBuffer read(InputStream in) throws IOException {
+			int count;
+			do {
+				count = in.read(m_chunk, m_position, CHUNK_SIZE - m_position);
+			} while (count == 0);
+			if (count == -1) {
+				return null;
+			}
+			m_view.clear().position(m_position).limit(m_position + count);
+			m_position += count;
+			m_length += count;
+			if (m_position == CHUNK_SIZE) {
+				fold();
+			}
+			return m_view;
+		}
+
+		long finish() {
+			if (m_position > 0 || m_length == 0) {
+				fold();
+			}
+			return (m_hash ^ m_length) * MULTIPLIER;
+		}
+
+		private void fold() {
+			m_hash = (Long.rotateLeft(m_hash, 31) ^ Hash.MURMUR3.hash128(m_chunk, 0, m_position, Hash.MURMUR3.DEFAULT_SEED)[0]) * MULTIPLIER;
+			m_position = 0;
+		}
+	}
+
+	static final record Entry(long size, long modified, long hash, String etag, String lastModified) {
+	}
+}
@@ -1,6 +1,5 @@
 package com.starworks.kronos.resources;
 
-import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
@@ -11,14 +10,18 @@ public interface ResourceLoader {
 	public default CompletableFuture<Void> load() {
 		var resources = Arrays.asList(getResourceList());
 		var futures = new ArrayList<CompletableFuture<Void>>();
-		File file;
 		for (var resource : resources) {
-			file = new File(ResourceManager.INSTANCE.fetchLocalResourcePath(resource));
-			if (file.exists()) continue;
-			futures.add(ResourceManager.INSTANCE.fetchWebResource(resource).thenApply(i -> null));
+			futures.add(ResourceManager.INSTANCE.hasLocalResource(resource, getPriority()).thenCompose(local -> {
+				if (local) return CompletableFuture.completedFuture(null);
+				return ResourceManager.INSTANCE.fetchWebResource(resource, getPriority()).thenApply(i -> null);
+			}));
 		}
 		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
 	}
 
 	public String[] getResourceList();
+
+	public default ResourcePriority getPriority() {
+		return ResourcePriority.NORMAL;
+	}
 }
@@ -1,26 +1,44 @@
 package com.starworks.kronos.resources;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.starworks.kronos.Configuration;
+import com.starworks.kronos.files.ByteBufferInputStream;
 import com.starworks.kronos.files.FileSystem;
 import com.starworks.kronos.logging.Logger;
 
 /*
  * Resource URL is expected to be resources/[category]/[sub_directories*]/[resource_name]. This way
  * this will directly line up to the local resources directory.
+ *
+ * Requests go through a staged pipeline: resolving checks the memory cache and joins any request
+ * already in flight for the same resource, on the calling thread; reading loads the bytes from disk
+ * or the network on a small pool of I/O threads; decoding turns them into the caller's type on the
+ * decode threads; publishing caches the bytes and completes the future. The read and decode stages
+ * each run a bounded number of tasks at once and take queued ones in priority order. Since at most
+ * one read per resource is ever in flight, different resources never wait on each other.
+ *
+ * Resource bytes are passed around as read-only buffers. Downloads stream into the local file through
+ * a chunk which each read thread reuses, hashing as they go, and large local files are read into
+ * direct buffers rather than onto the heap, so fetching a resource allocates no heap beyond what a
+ * small resource itself needs. Local files are never memory-mapped: a cached mapping would outlive its eviction until
+ * it is collected, and on Windows a mapped file cannot be replaced by the next download.
  */
 public enum ResourceManager {
 
@@ -30,17 +48,28 @@ public enum ResourceManager {
 
 	private static final String WEB_DIRECTORY = "https://kronosengine.com/resources/";
 	private static final String WORKING_DIRECTORY_EXT = "resources/";
+	private static final String PARTIAL_EXTENSION = ".part";
+	private static final int READ_CONCURRENCY = 4;
+	private static final long DIRECT_THRESHOLD = 1 << 16;
+	private static final long DEFAULT_CACHE_SIZE = 64L << 20;
 
-	private final Map<String, byte[]> m_cache;
-	private final Map<String, String> etagCache;
-	private final Map<String, String> lastModifiedCache;
-	private final StampedLock m_lock;
+	private final ResourceCache m_cache;
+	private final Map<String, CompletableFuture<ByteBuffer>> m_inFlight;
+	private final ResourceStage m_readStage;
+	private final ResourceStage m_decodeStage;
+	private volatile String m_webDirectory;
+	private volatile ResourceIndex m_index;
 
 	private ResourceManager() {
-		this.m_cache = new WeakHashMap<String, byte[]>();
-		this.etagCache = new HashMap<String, String>();
-		this.lastModifiedCache = new HashMap<String, String>();
-		this.m_lock = new StampedLock();
+		if (Configuration.runtime != null) {
+			this.m_cache = new ResourceCache(Configuration.runtime.resourceCacheSize(), Configuration.runtime.resourceCacheOffHeap());
+		} else {
+			this.m_cache = new ResourceCache(DEFAULT_CACHE_SIZE, false);
+		}
+		this.m_inFlight = new ConcurrentHashMap<String, CompletableFuture<ByteBuffer>>();
+		this.m_readStage = new ResourceStage("ResourceRead", READ_CONCURRENCY);
+		this.m_decodeStage = new ResourceStage("ResourceDecode", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+		this.m_webDirectory = WEB_DIRECTORY;
 	}
 
 	/*
@@ -56,116 +85,234 @@ public enum ResourceManager {
 		}
 	}
 
-	public void load(ResourceLoader... loaders) {
-		for (var loader : loaders) {
-			loader.load();
+	public CompletableFuture<Void> load(ResourceLoader... loaders) {
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[loaders.length];
+		for (int i = 0; i < loaders.length; i++) {
+			futures[i] = loaders[i].load();
 		}
+		return CompletableFuture.allOf(futures);
+	}
+
+	/**
+	 * Loads a resource from the memory cache, the local resources directory or,
+	 * failing both, the web directory, and decodes it. A local copy whose
+	 * contents no longer match what was downloaded is downloaded again.
+	 */
+	public <T> CompletableFuture<T> fetchResource(String resourcePath, ResourcePriority priority, ResourceDecoder<T> decoder) {
+		return decode(resourcePath, priority, decoder, read(resourcePath, priority, () -> {
+			if (isLocalUsable(resourcePath)) {
+				return readLocal(Paths.get(fetchLocalResourcePath(resourcePath)));
+			}
+			return download(m_webDirectory, resourcePath);
+		}));
 	}
 
 	public CompletableFuture<InputStream> fetchWebResource(String resourcePath) {
-		return fetchWebResource(WEB_DIRECTORY, resourcePath);
+		return fetchWebResource(m_webDirectory, resourcePath, ResourcePriority.NORMAL);
 	}
-	
+
+	public CompletableFuture<InputStream> fetchWebResource(String resourcePath, ResourcePriority priority) {
+		return fetchWebResource(m_webDirectory, resourcePath, priority);
+	}
+
 	public CompletableFuture<InputStream> fetchWebResource(String directoryURL, String resourceURL) {
-	    return CompletableFuture.supplyAsync(() -> {
-	        long stamp = m_lock.readLock();
-	        try {
-	            if (m_cache.containsKey(resourceURL)) {
-	                byte[] cached = m_cache.get(resourceURL);
-	                if (cached != null) {
-	                    return new ByteArrayInputStream(cached);
-	                }
-	            }
-
-	            long writeStamp = m_lock.tryConvertToWriteLock(stamp);
-	            if (writeStamp != 0L) {
-	                stamp = writeStamp;
-	                return fetchAndCacheWebResource(directoryURL, resourceURL, stamp);
-	            } else {
-	                m_lock.unlockRead(stamp);
-	                stamp = m_lock.writeLock();
-	                try {
-	                    if (m_cache.containsKey(resourceURL)) {
-	                        byte[] cached = m_cache.get(resourceURL);
-	                        if (cached != null) {
-	                            return new ByteArrayInputStream(cached);
-	                        }
-	                    }
-	                    return fetchAndCacheWebResource(directoryURL, resourceURL, stamp);
-	                } finally {
-	                    m_lock.unlockWrite(stamp);
-	                }
-	            }
-	        } finally {
-	            if (m_lock.validate(stamp)) {
-	                m_lock.unlockRead(stamp);
-	            }
-	        }
-	    });
-	}
-
-	private InputStream fetchAndCacheWebResource(String directoryURL, String resourceURL, long stamp) {
+		return fetchWebResource(directoryURL, resourceURL, ResourcePriority.NORMAL);
+	}
+
+	/**
+	 * Downloads a resource into the local resources directory, revalidating it
+	 * with the server if it was downloaded before, unless it is already cached
+	 * in memory. Web reads are cached and joined by their full URL, so the same
+	 * resource fetched from different directories is never confused.
+	 */
+	public CompletableFuture<InputStream> fetchWebResource(String directoryURL, String resourceURL, ResourcePriority priority) {
+		return read(directoryURL + resourceURL, priority, () -> download(directoryURL, resourceURL)).thenApply(ByteBufferInputStream::new);
+	}
+
+	/**
+	 * Resolves a request: answers it from the memory cache, joins the read
+	 * already in flight under the same key, or queues a new one. Every caller
+	 * gets its own read-only view of the bytes.
+	 *
+	 * @param key the resource path for local first reads, or the full URL for
+	 *            web reads
+	 */
+	private CompletableFuture<ByteBuffer> read(String key, ResourcePriority priority, Callable<ByteBuffer> reader) {
+		ByteBuffer cached = m_cache.getBuffer(key);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		CompletableFuture<ByteBuffer> future = m_inFlight.get(key);
+		if (future == null) {
+			CompletableFuture<ByteBuffer> created = new CompletableFuture<ByteBuffer>();
+			future = m_inFlight.putIfAbsent(key, created);
+			if (future == null) {
+				future = created;
+				submit(key, priority, reader, created);
+			}
+		}
+		return future.thenApply(ByteBuffer::asReadOnlyBuffer);
+	}
+
+	private void submit(String key, ResourcePriority priority, Callable<ByteBuffer> reader, CompletableFuture<ByteBuffer> created) {
+		m_readStage.execute(priority, () -> {
+			ByteBuffer data;
+			try {
+				data = reader.call();
+			} catch (Throwable e) {
+				m_inFlight.remove(key, created);
+				created.completeExceptionally(e instanceof CompletionException ? e : new CompletionException(e));
+				return;
+			}
+			m_cache.put(key, data);
+			m_inFlight.remove(key, created);
+			created.complete(data);
+		});
+	}
+
+	private <T> CompletableFuture<T> decode(String resourcePath, ResourcePriority priority, ResourceDecoder<T> decoder, CompletableFuture<ByteBuffer> data) {
+		return data.thenApplyAsync(buffer -> {
+			try {
+				return decoder.decode(resourcePath, buffer);
+			} catch (IOException e) {
+				throw new CompletionException(e);
+			}
+		}, m_decodeStage.executor(priority));
+	}
+
+	/**
+	 * Reads a local file onto the heap if it is small, and into a direct buffer
+	 * otherwise.
+	 */
+	private static ByteBuffer readLocal(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("Resource '" + file + "' is too large to load");
+			}
+			ByteBuffer buffer = size > DIRECT_THRESHOLD ? ByteBuffer.allocateDirect((int) size) : ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+			}
+			return buffer.flip();
+		}
+	}
+
+	/**
+	 * Streams a resource into its local file through the read thread's hashing
+	 * chunk, hashing it on the way, and then reads it back with {@link #readLocal(Path)}.
+	 */
+	private ByteBuffer download(String directoryURL, String resourceURL) throws IOException {
+		Path local = Paths.get(fetchLocalResourcePath(resourceURL));
+		ResourceIndex.Entry entry = Files.isRegularFile(local) ? index().verify(resourceURL) : null;
 		try {
-            URL url = new URL(fetchWebResourceURL(resourceURL));
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            
-            if (etagCache.containsKey(resourceURL)) {
-                connection.setRequestProperty("If-None-Match", etagCache.get(resourceURL));
-            }
-            if (lastModifiedCache.containsKey(resourceURL)) {
-                connection.setRequestProperty("If-Modified-Since", lastModifiedCache.get(resourceURL));
-            }
-
-            String localDirectory = getLocalResourceDirectory();
-            File file = new File(localDirectory + resourceURL);
-            if (!file.exists()) {
-                file.getParentFile().mkdirs();
-            }
-
-            int responseCode = connection.getResponseCode();
-
-            // If the server responds with 304 Not Modified, use the cached resource
-            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
-                LOGGER.info("Resource '{0}{1}' not modified, using cached version", directoryURL, resourceURL);
-                byte[] cachedResource = m_cache.get(resourceURL);
-                return new ByteArrayInputStream(cachedResource);
-            }
-
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-            ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-
-            try (var input = connection.getInputStream(); var output = new FileOutputStream(localDirectory + resourceURL)) {
-                while ((bytesRead = input.read(buffer)) != -1) {
-                    output.write(buffer, 0, bytesRead);
-                    byteStream.write(buffer, 0, bytesRead);
-                }
-            }
-
-            String etag = connection.getHeaderField("ETag");
-            String lastModified = connection.getHeaderField("Last-Modified");
-
-            // If the server doesn't support ETag or Last-Modified, cache the resource unconditionally
-            if (etag == null && lastModified == null) {
-                LOGGER.warn("Resource '{0}{1}' does not support ETag or Last-Modified, caching unconditionally", directoryURL, resourceURL);
-            } else {
-                etagCache.put(resourceURL, etag);
-                lastModifiedCache.put(resourceURL, lastModified);
-            }
-
-            LOGGER.info("Downloading '{0}{1}'", directoryURL, resourceURL);
-
-            byte[] resource = byteStream.toByteArray();
-
-            m_cache.put(resourceURL, resource);
-
-            return new ByteArrayInputStream(resource);
+			URL url = new URL(directoryURL + resourceURL);
+			HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+			if (entry != null) {
+				if (entry.etag() != null) {
+					connection.setRequestProperty("If-None-Match", entry.etag());
+				}
+				if (entry.lastModified() != null) {
+					connection.setRequestProperty("If-Modified-Since", entry.lastModified());
+				}
+			}
+
+			int responseCode = connection.getResponseCode();
+
+			// If the server responds with 304 Not Modified, use the local copy
+			if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && entry != null) {
+				LOGGER.info("Resource '{0}{1}' not modified, using cached version", directoryURL, resourceURL);
+				return readLocal(local);
+			}
+			if (responseCode != HttpURLConnection.HTTP_OK) {
+				throw new IOException("Server responded with " + responseCode);
+			}
+
+			LOGGER.info("Downloading '{0}{1}'", directoryURL, resourceURL);
+
+			Files.createDirectories(local.getParent());
+			Path partial = Files.createTempFile(local.getParent(), local.getFileName().toString(), PARTIAL_EXTENSION);
+			ResourceIndex.Hasher hasher = new ResourceIndex.Hasher();
+			long size = 0;
+
+			try (InputStream input = connection.getInputStream();
+					FileChannel output = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer chunk;
+				while ((chunk = hasher.read(input)) != null) {
+					size += chunk.remaining();
+					while (chunk.hasRemaining()) {
+						output.write(chunk);
+					}
+				}
+			} catch (IOException e) {
+				Files.deleteIfExists(partial);
+				throw e;
+			}
+			Files.move(partial, local, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			String etag = connection.getHeaderField("ETag");
+			String lastModified = connection.getHeaderField("Last-Modified");
+
+			// If the server doesn't support ETag or Last-Modified, cache the resource unconditionally
+			if (etag == null && lastModified == null) {
+				LOGGER.warn("Resource '{0}{1}' does not support ETag or Last-Modified, caching unconditionally", directoryURL, resourceURL);
+			}
+			index().record(resourceURL, size, hasher.finish(), etag, lastModified);
+
+			return readLocal(local);
 		} catch (IOException e) {
-	        LOGGER.error("Unable to download resource '{0}{1}", directoryURL, resourceURL);
-	        throw new CompletionException(e);
-	    } finally {
-	        m_lock.unlockWrite(stamp);
-	    }
+			LOGGER.error("Unable to download resource '{0}{1}'", directoryURL, resourceURL);
+			throw e;
+		}
+	}
+
+	public CompletableFuture<Boolean> hasLocalResource(String resourcePath) {
+		return hasLocalResource(resourcePath, ResourcePriority.NORMAL);
+	}
+
+	/**
+	 * Checks on a read thread whether the local copy of a resource can be used
+	 * without downloading it, since a changed file has to be hashed again.
+	 */
+	public CompletableFuture<Boolean> hasLocalResource(String resourcePath, ResourcePriority priority) {
+		return CompletableFuture.supplyAsync(() -> isLocalUsable(resourcePath), m_readStage.executor(priority));
+	}
+
+	/**
+	 * Whether the local copy of a resource exists and, if it was downloaded,
+	 * still has the contents it was downloaded with.
+	 */
+	private boolean isLocalUsable(String resourcePath) {
+		if (!Files.isRegularFile(Paths.get(fetchLocalResourcePath(resourcePath)))) {
+			return false;
+		}
+		ResourceIndex index = index();
+		return !index.contains(resourcePath) || index.verify(resourcePath) != null;
+	}
+
+	private ResourceIndex index() {
+		ResourceIndex index = m_index;
+		if (index == null) {
+			synchronized (this) {
+				index = m_index;
+				if (index == null) {
+					index = ResourceIndex.load(Paths.get(getLocalResourceDirectory()), m_readStage.executor(ResourcePriority.LOW));
+					m_index = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	public ResourceCache getCache() {
+		return m_cache;
+	}
+
+	/**
+	 * @return the number of reads waiting for a free read thread
+	 */
+	public int getQueuedCount() {
+		return m_readStage.getQueuedCount();
 	}
 
 	public String fetchLocalResourcePath(String resourcePath) {
@@ -175,7 +322,7 @@ public enum ResourceManager {
 	}
 
 	public String fetchWebResourceURL(String resourcePath) {
-		StringBuilder sb = new StringBuilder(WEB_DIRECTORY);
+		StringBuilder sb = new StringBuilder(m_webDirectory);
 		sb.append(resourcePath);
 		return sb.toString();
 	}
@@ -188,6 +335,14 @@ public enum ResourceManager {
 	}
 
 	public String getWebResourceDirectory() {
-		return WEB_DIRECTORY;
+		return m_webDirectory;
+	}
+
+	/**
+	 * Points web requests at another server, such as a mirror or a local stand
+	 * in; {@code null} restores the default.
+	 */
+	public void setWebResourceDirectory(String webDirectory) {
+		m_webDirectory = webDirectory == null ? WEB_DIRECTORY : webDirectory.endsWith("/") ? webDirectory : webDirectory + "/";
 	}
 }
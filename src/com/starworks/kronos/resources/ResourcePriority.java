@@ -0,0 +1,18 @@
+package com.starworks.kronos.resources;
+
+/**
+ * How urgently a resource is needed. Queued requests are started in priority
+ * order, and in the order they were made within a priority.
+ *
+ * @author Ethan Temprovich
+ */
+public enum ResourcePriority {
+
+	/** Needed before the current frame can be presented. */
+	CRITICAL,
+	/** Needed by something about to come into view. */
+	HIGH,
+	NORMAL,
+	/** Prefetching which may be delayed indefinitely. */
+	LOW;
+}
@@ -0,0 +1,60 @@
+package com.starworks.kronos.resources;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One stage of the resource pipeline: a fixed number of daemon threads taking
+ * work from a queue ordered by {@link ResourcePriority}, first come first
+ * served within a priority. The thread count bounds how much of the stage's
+ * work runs at once, so a burst of requests queues instead of flooding the
+ * network or the processor.
+ *
+ * @author Ethan Temprovich
+ */
+final class ResourceStage {
+
+	private final ThreadPoolExecutor m_executor;
+	private final AtomicLong m_sequence;
+
+	ResourceStage(String name, int concurrency) {
+		AtomicInteger count = new AtomicInteger(0);
+		this.m_executor = new ThreadPoolExecutor(concurrency, concurrency, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(), runnable -> {
+			Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.m_executor.allowCoreThreadTimeOut(true);
+		this.m_sequence = new AtomicLong(0);
+	}
+
+	void execute(ResourcePriority priority, Runnable task) {
+		m_executor.execute(new Task(priority.ordinal(), m_sequence.getAndIncrement(), task));
+	}
+
+	Executor executor(ResourcePriority priority) {
+		return task -> execute(priority, task);
+	}
+
+	int getQueuedCount() {
+		return m_executor.getQueue().size();
+	}
+
+	private static final record Task(int priority, long sequence, Runnable task) implements Runnable, Comparable<Task> {
+
+		@Override
+		public void run() {
+			task.run();
+		}
+
+		@Override
+		public int compareTo(Task other) {
+			int compare = Integer.compare(priority, other.priority);
+			return compare != 0 ? compare : Long.compare(sequence, other.sequence);
+		}
+	}
+}
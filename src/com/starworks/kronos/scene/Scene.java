@@ -59,13 +59,19 @@ public final class Scene implements Closeable {
 
 	private void initialize() {
 		getEventSink().connect(ListenerType.ON_COMPONENT_ADD, EventSink.ANY, (entity, component) -> {
-			LOGGER.debug("Added {0} to {1}", component.getClass().getSimpleName(), entity.getFormattedID());
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Added {0} to {1}", component.getClass().getSimpleName(), entity.getFormattedID());
+			}
 		});
 		getEventSink().connect(ListenerType.ON_COMPONENT_REPLACE, EventSink.ANY, (entity, component) -> {
-			LOGGER.debug("Replaced {0} on {1}", component.getClass().getSimpleName(), entity.getFormattedID());
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Replaced {0} on {1}", component.getClass().getSimpleName(), entity.getFormattedID());
+			}
 		});
 		getEventSink().connect(ListenerType.ON_COMPONENT_REMOVE, EventSink.ANY, (entity, component) -> {
-			LOGGER.debug("Removed {0} from {1}", component.getClass().getSimpleName(), entity.getFormattedID());
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Removed {0} from {1}", component.getClass().getSimpleName(), entity.getFormattedID());
+			}
 		});
 		
 		m_isRunning = true;
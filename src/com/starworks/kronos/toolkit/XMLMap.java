@@ -6,12 +6,9 @@ import java.util.Map;
 
 import com.starworks.kronos.files.FileHandle;
 import com.starworks.kronos.files.FileSystem;
-import com.ximpleware.AutoPilot;
 import com.ximpleware.NavException;
 import com.ximpleware.VTDGen;
 import com.ximpleware.VTDNav;
-import com.ximpleware.XPathEvalException;
-import com.ximpleware.XPathParseException;
 
 @Deprecated
 public class XMLMap implements AutoCloseable {
@@ -107,17 +104,22 @@ public class XMLMap implements AutoCloseable {
 		try {
 			if (vtd.parseFile(filename, true)) {
 				VTDNav nav = vtd.getNav();
-				AutoPilot auto = new AutoPilot(nav);
-				auto.selectXPath("/map/entries/entry");
-				while (auto.evalXPath() != -1) {
-					nav.push();
-					String key = nav.toString(nav.getAttrVal("key"));
-					String value = nav.toString(nav.getText());
-					m_entries.put(key, value);
-					nav.pop();
+				if (nav.matchElement("map") && nav.toElement(VTDNav.FIRST_CHILD, "entries")) {
+					do {
+						if (nav.toElement(VTDNav.FIRST_CHILD, "entry")) {
+							do {
+								int key = nav.getAttrVal("key");
+								int text = nav.getText();
+								if (key != -1) {
+									m_entries.put(nav.toString(key), text != -1 ? nav.toString(text) : "");
+								}
+							} while (nav.toElement(VTDNav.NEXT_SIBLING, "entry"));
+							nav.toElement(VTDNav.PARENT);
+						}
+					} while (nav.toElement(VTDNav.NEXT_SIBLING, "entries"));
 				}
 			}
-		} catch (XPathParseException | XPathEvalException | NavException e) {
+		} catch (NavException e) {
 			e.printStackTrace();
 		}
 	}
@@ -1,42 +1,43 @@
 package com.starworks.kronos.toolkit.collections.pool;
 
-import java.util.Deque;
-import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
 /* This class represents a pool of objects that can be reused to avoid allocation. When an
 * object is requested from the pool, if there are any objects available, one is returned.
-* If there are no objects available, a new one is created using the #newInstance() method.
+* If there are no objects available, a new one is created using the #create() method.
 * When an object is returned to the pool, it is added to the pool for later reuse. If the
 * pool is full, the object is discarded.
 * 
+* Free objects are kept on an array stack sized to the pool's capacity, so neither
+* obtaining nor freeing an object allocates.
+* 
 * Any pool needed can be initialized in-line.
 * 
 * @author Ethan Temprovich
 */
 public abstract class ObjectPool<T> {
 
-	private final Deque<T> m_pool;
-	private final AtomicInteger m_size;
-	private final ReadWriteLock m_lock;
+	private final Object[] m_pool;
+	private int m_size;
 
 	public ObjectPool(int size) {
-		this.m_pool = new ConcurrentLinkedDeque<T>();
-		this.m_size = new AtomicInteger(0);
-		this.m_lock = new ReentrantReadWriteLock();
+		if (size < 0) {
+			throw new IllegalArgumentException("Pool capacity cannot be negative: " + size);
+		}
+		this.m_pool = new Object[size];
+		this.m_size = 0;
 	}
 
 	protected abstract T create();
 
+	@SuppressWarnings("unchecked")
 	public T obtain() {
-		T object = m_pool.poll();
-		if (object == null) {
-			return create();
+		T object = null;
+		synchronized (m_pool) {
+			if (m_size > 0) {
+				object = (T) m_pool[--m_size];
+				m_pool[m_size] = null;
+			}
 		}
-		m_size.decrementAndGet();
-		return object;
+		return object == null ? create() : object;
 	}
 
 	public void free(T object) {
@@ -44,31 +45,43 @@ public abstract class ObjectPool<T> {
 			throw new NullPointerException("Cannot free null object");
 		}
 		release(object);
-		m_pool.offer(object);
-		m_size.incrementAndGet();
+		synchronized (m_pool) {
+			if (m_size < m_pool.length) {
+				m_pool[m_size++] = object;
+			}
+		}
 	}
 
 	public void freeAll(T[] objects) {
 		if (objects == null) {
 			throw new NullPointerException("Cannot free null objects");
 		}
-		m_lock.writeLock().lock();
-		try {
+		for (T object : objects) {
+			if (object != null) {
+				release(object);
+			}
+		}
+		synchronized (m_pool) {
 			for (T object : objects) {
 				if (object == null) {
 					continue;
 				}
-				release(object);
-				m_pool.offer(object);
-				m_size.incrementAndGet();
+				if (m_size == m_pool.length) {
+					break;
+				}
+				m_pool[m_size++] = object;
 			}
-		} finally {
-			m_lock.writeLock().unlock();
 		}
 	}
 
 	public int size() {
-		return m_size.get();
+		synchronized (m_pool) {
+			return m_size;
+		}
+	}
+
+	public int capacity() {
+		return m_pool.length;
 	}
 
 	protected void release(T object) {
@@ -80,4 +93,4 @@ public abstract class ObjectPool<T> {
 	public static interface Poolable {
 		void reset();
 	}
-}
\ No newline at end of file
+}